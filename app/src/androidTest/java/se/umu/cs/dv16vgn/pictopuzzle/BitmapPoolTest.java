@@ -0,0 +1,110 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.Debug;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the BitmapPool and compares the allocations and garbage
+ * collections of a three round Arcade session made with and without it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BitmapPoolTest {
+
+    private static final String TAG = "BitmapPoolTest";
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1700;
+
+    @Test
+    public void testReusesBitmapsThatAreBigEnough(){
+        BitmapPool pool = new BitmapPool(1024 * 1024);
+        Bitmap bitmap = Bitmap.createBitmap(40, 40, Bitmap.Config.ARGB_8888);
+        pool.put(bitmap);
+
+        Bitmap reused = pool.get(30, 20, Bitmap.Config.ARGB_8888);
+        assertSame(bitmap, reused);
+        assertEquals(30, reused.getWidth());
+        assertEquals(20, reused.getHeight());
+        assertEquals(0, reused.getPixel(0, 0));
+        assertEquals(1, pool.getHitCount());
+
+        pool.put(reused);
+        assertNull(pool.getDirty(50, 50, Bitmap.Config.ARGB_8888));
+        assertNull(pool.getDirty(4, 4, Bitmap.Config.ARGB_8888));
+        assertEquals(2, pool.getMissCount());
+    }
+
+    @Test
+    public void testKeepsWithinByteBudget(){
+        Bitmap small = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+        Bitmap large = Bitmap.createBitmap(20, 20, Bitmap.Config.ARGB_8888);
+        BitmapPool pool = new BitmapPool(large.getAllocationByteCount());
+
+        pool.put(large);
+        pool.put(small);
+        assertTrue(large.isRecycled());
+        assertFalse(small.isRecycled());
+        assertEquals(small.getAllocationByteCount(), pool.getByteCount());
+
+        pool.onLowMemory();
+        assertTrue(small.isRecycled());
+        assertEquals(0, pool.getByteCount());
+    }
+
+    @Test
+    public void testArcadeSessionAllocatesLess() throws IOException {
+        String[] sizes = {GridSize.PRESETS[0], GridSize.PRESETS[1],
+                GridSize.PRESETS[2]};
+        File[] photos = new File[sizes.length];
+        for(int i = 0; i<sizes.length; i++){
+            photos[i] = TestPhotos.writeJpeg("round-" + i, 3024, 4032);
+        }
+
+        int unpooled = playSession(new BitmapPool(0), photos, sizes, "none");
+        int pooled = playSession(new BitmapPool(64 * 1024 * 1024), photos,
+                sizes, "pooled");
+        assertTrue(pooled < unpooled);
+    }
+
+    /**
+     * Makes the tiles of every round and gives them back to the pool
+     * when the round is over, like Game does.
+     * @return The bitmaps allocated.
+     */
+    private int playSession(BitmapPool pool, File[] photos, String[] sizes,
+                            String label){
+        PhotoHandler photoHandler = new PhotoHandler(pool);
+        String gcCount = "art.gc.gc-count";
+        boolean hasGcStats = Build.VERSION.SDK_INT >= 23;
+        long gcBefore = hasGcStats
+                ? Long.parseLong(Debug.getRuntimeStat(gcCount)) : 0;
+
+        for(int i = 0; i<sizes.length; i++){
+            GridSize size = GridSize.parse(sizes[i]);
+            GameGrid gg = new GameGrid(SCREEN_WIDTH / size.getColumns(),
+                    SCREEN_HEIGHT / size.getRows(), size.getRows(),
+                    size.getColumns());
+            TileAtlas tiles = photoHandler.produceTilesFromPath(
+                    photos[i].getAbsolutePath(), gg);
+            assertNotNull(tiles);
+            pool.put(tiles.getBitmap());
+        }
+
+        long gcs = hasGcStats
+                ? Long.parseLong(Debug.getRuntimeStat(gcCount)) - gcBefore
+                : -1;
+        Log.i(TAG, label + ": " + pool.getMissCount() + " allocations, "
+                + pool.getHitCount() + " reused, " + gcs + " GCs");
+        return pool.getMissCount();
+    }
+}
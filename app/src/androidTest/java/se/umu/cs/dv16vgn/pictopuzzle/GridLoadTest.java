@@ -0,0 +1,193 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures load time, tile memory and pixel work of a new puzzle for
+ * every grid size preset and tile pixel format, on a photo sized like a
+ * 3 MP camera picture.
+ * The scale into an atlas path of PhotoHandler is compared with slicing
+ * and resizing every tile on its own, the way tiles used to be made.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GridLoadTest {
+
+    private static final String TAG = "GridLoadTest";
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1700;
+
+    /**
+     * Slices and resizes every tile on its own, like PhotoHandler did
+     * before it scaled the whole photo once.
+     * @param work Receives the pixels copied and the peak bytes held.
+     */
+    private Bitmap[][] sliceThenResize(Bitmap bitmap, GameGrid gg,
+                                       long work[]){
+        int columns = gg.getColumns();
+        int rows = gg.getRows();
+        Bitmap[][] bitmaps = new Bitmap[columns][rows];
+        long held = bitmap.getByteCount();
+
+        for(int x = 0; x < columns; ++x) {
+            int left = x * bitmap.getWidth() / columns;
+            int width = (x + 1) * bitmap.getWidth() / columns - left;
+            for(int y = 0; y < rows; ++y) {
+                int top = y * bitmap.getHeight() / rows;
+                int height = (y + 1) * bitmap.getHeight() / rows - top;
+                Bitmap slice = Bitmap.createBitmap(bitmap, left, top,
+                        width, height);
+                Matrix matrix = new Matrix();
+                matrix.postScale((float) gg.getTileWidth() / width,
+                        (float) gg.getTileHeight() / height);
+                bitmaps[x][y] = Bitmap.createBitmap(slice, 0, 0, width,
+                        height, matrix, false);
+                work[0] += (long) width * height
+                        + gg.getTileWidth() * gg.getTileHeight();
+                held += bitmaps[x][y].getByteCount();
+                work[1] = Math.max(work[1], held + slice.getByteCount());
+                slice.recycle();
+            }
+        }
+        return bitmaps;
+    }
+
+    @Test
+    public void testScaleThenSliceDoesLessWork(){
+        PhotoHandler photoHandler = new PhotoHandler();
+        Bitmap photo = Bitmap.createBitmap(1536, 2048,
+                Bitmap.Config.ARGB_8888);
+
+        for(String definition : GridSize.PRESETS){
+            GridSize size = GridSize.parse(definition);
+            GameGrid gg = new GameGrid(SCREEN_WIDTH / size.getColumns(),
+                    SCREEN_HEIGHT / size.getRows(), size.getRows(),
+                    size.getColumns());
+
+            long work[] = new long[2];
+            long start = SystemClock.elapsedRealtimeNanos();
+            Bitmap[][] old = sliceThenResize(photo, gg, work);
+            long oldNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+            photoHandler.resetPixelWork();
+            photoHandler.resetPeakBitmapBytes();
+            start = SystemClock.elapsedRealtimeNanos();
+            TileAtlas atlas = photoHandler.resizeIntoAtlas(photo, gg);
+            long nanos = SystemClock.elapsedRealtimeNanos() - start;
+
+            Log.i(TAG, definition + ": per tile " + work[0] / 1000
+                    + " kpx " + work[1] / 1024 + " KiB peak "
+                    + oldNanos / 1000000 + " ms, scale then slice "
+                    + photoHandler.getPixelWork() / 1000 + " kpx "
+                    + photoHandler.getPeakBitmapBytes() / 1024
+                    + " KiB peak " + nanos / 1000000 + " ms");
+            assertTrue(photoHandler.getPixelWork() < work[0]);
+
+            for(int x = 0; x<old.length; x++){
+                for(int y = 0; y<old[x].length; y++){
+                    old[x][y].recycle();
+                }
+            }
+            atlas.getBitmap().recycle();
+        }
+        photo.recycle();
+    }
+
+    @Test
+    public void testLoadTimeAndMemoryPerGridSize(){
+        Bitmap.Config[] configs = Build.VERSION.SDK_INT >= 26
+                ? new Bitmap.Config[]{Bitmap.Config.ARGB_8888,
+                Bitmap.Config.RGB_565, Bitmap.Config.HARDWARE}
+                : new Bitmap.Config[]{Bitmap.Config.ARGB_8888,
+                Bitmap.Config.RGB_565};
+
+        for(String definition : GridSize.PRESETS){
+            GridSize size = GridSize.parse(definition);
+            long fullBytes = 0;
+            for(Bitmap.Config config : configs){
+                long tileBytes = loadTiles(size, config, definition);
+                if(config == Bitmap.Config.ARGB_8888){
+                    fullBytes = tileBytes;
+                }else if(config == Bitmap.Config.RGB_565){
+                    assertEquals(fullBytes / 2, tileBytes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPreOreoConfigsAreFinishedAsTheyAre(){
+        int sdkInt = Build.VERSION_CODES.KITKAT;
+        Bitmap.Config configs[] = {
+                PhotoHandler.chooseTileConfig(false, sdkInt),
+                PhotoHandler.chooseTileConfig(true, sdkInt)};
+        assertEquals(Bitmap.Config.ARGB_8888, configs[0]);
+        assertEquals(Bitmap.Config.RGB_565, configs[1]);
+
+        for(Bitmap.Config config : configs){
+            PhotoHandler photoHandler = new PhotoHandler();
+            photoHandler.setTileConfig(config);
+            assertEquals(config, photoHandler.getTileConfig());
+            assertNull(photoHandler.finishTiles(null));
+
+            GameGrid gg = new GameGrid(40, 60, 3, 3);
+            Bitmap photo = Bitmap.createBitmap(300, 400,
+                    Bitmap.Config.ARGB_8888);
+            TileAtlas atlas = photoHandler.resizeIntoAtlas(photo, gg);
+            TileAtlas finished = photoHandler.finishTiles(atlas);
+
+            assertSame(atlas, finished);
+            assertEquals(config, finished.getBitmap().getConfig());
+            finished.getBitmap().recycle();
+            photo.recycle();
+        }
+    }
+
+    /**
+     * Makes the tiles of a new puzzle in a pixel format and logs the time
+     * and tile memory it took.
+     * @return The bytes of the atlas, 0 for a hardware atlas that is not
+     * held in the Java heap.
+     */
+    private long loadTiles(GridSize size, Bitmap.Config config,
+                           String definition){
+        PhotoHandler photoHandler = new PhotoHandler();
+        photoHandler.setTileConfig(config);
+        Bitmap photo = Bitmap.createBitmap(1536, 2048,
+                Bitmap.Config.ARGB_8888);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        GameGrid gg = new GameGrid(SCREEN_WIDTH / size.getColumns(),
+                SCREEN_HEIGHT / size.getRows(), size.getRows(),
+                size.getColumns());
+        TileAtlas atlas = photoHandler.finishTiles(
+                photoHandler.resizeIntoAtlas(photo, gg));
+        long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+
+        Bitmap bitmap = atlas.getBitmap();
+        assertEquals(gg.getTileWidth(), atlas.getCellWidth());
+        assertEquals(gg.getTileHeight(), atlas.getCellHeight());
+        assertEquals(gg.getTileWidth() * gg.getColumns(), bitmap.getWidth());
+        assertEquals(gg.getTileHeight() * gg.getRows(), bitmap.getHeight());
+        assertEquals(config, bitmap.getConfig());
+        long tileBytes = Build.VERSION.SDK_INT >= 26
+                && config == Bitmap.Config.HARDWARE
+                ? 0 : bitmap.getByteCount();
+        Log.i(TAG, definition + " " + config + ": " + elapsed / 1000000
+                + " ms, " + tileBytes / 1024 + " KiB in "
+                + size.getTileCount() + " tiles");
+
+        bitmap.recycle();
+        photo.recycle();
+        return tileBytes;
+    }
+}
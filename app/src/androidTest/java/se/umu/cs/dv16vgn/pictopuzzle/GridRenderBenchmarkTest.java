@@ -0,0 +1,223 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+import android.widget.LinearLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the grid of one ImageButton per tile and one LinearLayout
+ * per row that GraphicsGrid used to build with the single PuzzleView,
+ * by the time to build, measure and lay out the grid, the time to draw a
+ * frame of it and the amount of views. Also checks that PuzzleView draws
+ * every tile from one atlas, swaps tiles by their atlas cells and draws
+ * its markers over the atlas without touching it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GridRenderBenchmarkTest {
+
+    private static final String TAG = "GridRenderBenchmarkTest";
+    private static final int GRID_WIDTH = 1000;
+    private static final int GRID_HEIGHT = 1500;
+    private static final int[] SIDES = {5, 20, 50};
+    private static final int FRAMES = 10;
+
+    private Context context = InstrumentationRegistry.getTargetContext();
+
+    private Bitmap[][] pieces(GameGrid gg){
+        Bitmap[][] pieces = new Bitmap[gg.getColumns()][gg.getRows()];
+        for(int x = 0; x<gg.getColumns(); x++){
+            for(int y = 0; y<gg.getRows(); y++){
+                pieces[x][y] = Bitmap.createBitmap(gg.getTileWidth(),
+                        gg.getTileHeight(), Bitmap.Config.ARGB_8888);
+                pieces[x][y].eraseColor(x % 2 == y % 2 ? Color.RED
+                        : Color.BLUE);
+            }
+        }
+        return pieces;
+    }
+
+    private TileAtlas atlas(GameGrid gg){
+        Bitmap bitmap = Bitmap.createBitmap(gg.getTileWidth()
+                * gg.getColumns(), gg.getTileHeight() * gg.getRows(),
+                Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.RED);
+        return new TileAtlas(bitmap, gg);
+    }
+
+    /**
+     * Builds the grid the way GraphicsGrid did before PuzzleView.
+     */
+
+    private LinearLayout legacyGrid(Bitmap[][] pieces, GameGrid gg){
+        LinearLayout topRow = new LinearLayout(context);
+        topRow.setOrientation(LinearLayout.VERTICAL);
+        for(int i = 0; i<gg.getRows(); i++){
+            LinearLayout row = new LinearLayout(context);
+            row.setOrientation(LinearLayout.HORIZONTAL);
+            for(int j = 0; j<gg.getColumns(); j++){
+                ImageButton button = new ImageButton(context);
+                button.setBackgroundColor(Color.TRANSPARENT);
+                button.setPadding(0, 0, 0, 0);
+                button.setImageBitmap(pieces[j][i]);
+                button.setOnClickListener(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View view) {
+                    }
+                });
+                row.addView(button);
+            }
+            topRow.addView(row);
+        }
+        return topRow;
+    }
+
+    private void layOut(View view){
+        view.measure(View.MeasureSpec.makeMeasureSpec(GRID_WIDTH,
+                View.MeasureSpec.AT_MOST), View.MeasureSpec.makeMeasureSpec(
+                GRID_HEIGHT, View.MeasureSpec.AT_MOST));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+
+    private long frameNanos(View view, Canvas canvas){
+        view.draw(canvas);
+        long start = SystemClock.elapsedRealtimeNanos();
+        for(int i = 0; i<FRAMES; i++){
+            view.draw(canvas);
+        }
+        return (SystemClock.elapsedRealtimeNanos() - start) / FRAMES;
+    }
+
+    private int countViews(View view){
+        int count = 1;
+        if(view instanceof ViewGroup){
+            ViewGroup group = (ViewGroup) view;
+            for(int i = 0; i<group.getChildCount(); i++){
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testInflateFrameTimeAndViewCount(){
+        Canvas canvas = new Canvas(Bitmap.createBitmap(GRID_WIDTH,
+                GRID_HEIGHT, Bitmap.Config.ARGB_8888));
+        for(int side : SIDES){
+            GameGrid gg = new GameGrid(GRID_WIDTH / side,
+                    GRID_HEIGHT / side, side, side);
+            Bitmap[][] pieces = pieces(gg);
+            TileAtlas atlas = atlas(gg);
+
+            long start = SystemClock.elapsedRealtimeNanos();
+            LinearLayout legacy = legacyGrid(pieces, gg);
+            layOut(legacy);
+            long legacyInflate = SystemClock.elapsedRealtimeNanos() - start;
+            long legacyFrame = frameNanos(legacy, canvas);
+
+            start = SystemClock.elapsedRealtimeNanos();
+            LinearLayout topRow = new LinearLayout(context);
+            GraphicsGrid graphicsGrid = new GraphicsGrid(side, side, context);
+            graphicsGrid.setupNewImagesForGrid(topRow, atlas, gg, false);
+            layOut(topRow);
+            long inflate = SystemClock.elapsedRealtimeNanos() - start;
+            long frame = frameNanos(topRow, canvas);
+
+            assertEquals(1 + side + side * side, countViews(legacy));
+            assertEquals(2, countViews(topRow));
+            assertEquals(gg.getTileWidth() * side,
+                    graphicsGrid.getPuzzleView().getMeasuredWidth());
+            Log.i(TAG, side + "x" + side + ": buttons "
+                    + legacyInflate / 1000 + " us to inflate, "
+                    + legacyFrame / 1000 + " us a frame, "
+                    + countViews(legacy) + " views; PuzzleView "
+                    + inflate / 1000 + " us to inflate, "
+                    + frame / 1000 + " us a frame, "
+                    + countViews(topRow) + " views");
+        }
+    }
+
+    @Test
+    public void testSwapsRemapCellsOfOneAtlas(){
+        GameGrid gg = new GameGrid(20, 30, 50, 50);
+        TileAtlas atlas = atlas(gg);
+        GraphicsGrid graphicsGrid = new GraphicsGrid(50, 50, context);
+        graphicsGrid.setupNewImagesForGrid(new LinearLayout(context), atlas,
+                gg, false);
+        PuzzleView view = graphicsGrid.getPuzzleView();
+        view.setMarkedTile(gg.indexOf(0, 0));
+
+        Position first = new Position(0, 0);
+        Position last = new Position(49, 49);
+        graphicsGrid.swapTileImages(first, last);
+
+        assertSame(atlas, view.getAtlas());
+        assertEquals(gg.indexOf(49, 49),
+                graphicsGrid.getImageSourceAtPosition(first));
+        assertEquals(0, graphicsGrid.getImageSourceAtPosition(last));
+        assertEquals(gg.indexOf(49, 49), view.getMarkedTile());
+        for(int i = 1; i<50 * 50 - 1; i++){
+            assertEquals(i, view.getCell(i));
+        }
+
+        Rect rect = new Rect();
+        atlas.getCellRect(gg.indexOf(2, 3), rect);
+        assertEquals(new Rect(60, 60, 80, 90), rect);
+    }
+
+    @Test
+    public void testMarkersAreDrawnOverImmutableAtlas(){
+        GameGrid gg = new GameGrid(20, 30, 2, 2);
+        Bitmap solid = atlas(gg).getBitmap();
+        TileAtlas atlas = new TileAtlas(solid.copy(Bitmap.Config.ARGB_8888,
+                false), gg);
+        solid.recycle();
+        GraphicsGrid graphicsGrid = new GraphicsGrid(2, 2, context);
+        graphicsGrid.setupNewImagesForGrid(new LinearLayout(context), atlas,
+                gg, false);
+        graphicsGrid.markTile(new Position(0, 0), true, gg);
+        PuzzleView view = graphicsGrid.getPuzzleView();
+        layOut(view);
+
+        Bitmap frame = Bitmap.createBitmap(40, 60, Bitmap.Config.ARGB_8888);
+        view.draw(new Canvas(frame));
+
+        assertFalse(atlas.getBitmap().isMutable());
+        assertEquals(Color.RED, atlas.getBitmap().getPixel(0, 0));
+        assertEquals(Color.RED, atlas.getBitmap().getPixel(20, 59));
+        assertEquals(Color.RED, frame.getPixel(10, 15));
+        assertEquals(Color.GREEN, frame.getPixel(0, 15));
+        assertEquals(Color.GREEN, frame.getPixel(19, 15));
+        assertEquals(Color.BLACK, frame.getPixel(30, 59));
+        assertEquals(Color.BLACK, frame.getPixel(39, 45));
+        frame.recycle();
+    }
+
+    @Test
+    public void testTilesAreFoundInViewCoordinates(){
+        PuzzleView view = new PuzzleView(context);
+        view.setGrid(3, 4, 25, 40);
+
+        assertEquals(0, view.tileAt(0, 0));
+        assertEquals(3, view.tileAt(99.9f, 39.9f));
+        assertEquals(4, view.tileAt(0, 40));
+        assertEquals(11, view.tileAt(99, 119));
+        assertEquals(-1, view.tileAt(100, 0));
+        assertEquals(-1, view.tileAt(0, 120));
+        assertEquals(-1, view.tileAt(-1, 5));
+    }
+}
@@ -0,0 +1,145 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the pipeline delivers tiles on the main thread, that a
+ * cancelled job delivers nothing and leaves nothing in a cleared disk
+ * cache, and logs how long a 50x50 grid takes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImagePipelineTest {
+
+    private static final String TAG = "ImagePipelineTest";
+
+    @Test
+    public void testTilesAreDeliveredOnMainThread() throws Exception {
+        File file = TestPhotos.writeJpeg("pipeline", 3024, 4032);
+        ImagePipeline pipeline = new ImagePipeline(new PhotoHandler());
+        final GameGrid gg = new GameGrid(21, 34, 50, 50);
+        final CountDownLatch done = new CountDownLatch(1);
+        final boolean[] onMainThread = new boolean[1];
+        final TileAtlas[] result = new TileAtlas[1];
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        pipeline.load(file.getAbsolutePath(), gg, null,
+                new ImagePipeline.Listener() {
+            @Override
+            public void onTilesReady(GameGrid gameGrid, TileAtlas tiles,
+                                     TileAtlas preview) {
+                onMainThread[0] = Looper.myLooper() == Looper.getMainLooper();
+                result[0] = tiles;
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        Log.i(TAG, "50x50: " + (SystemClock.elapsedRealtimeNanos() - start)
+                / 1000000 + " ms");
+
+        assertTrue(onMainThread[0]);
+        assertEquals(50, result[0].getColumns());
+        assertEquals(50, result[0].getRows());
+        assertEquals(21, result[0].getCellWidth());
+        assertEquals(34, result[0].getCellHeight());
+        assertEquals(21 * 50, result[0].getBitmap().getWidth());
+        assertEquals(34 * 50, result[0].getBitmap().getHeight());
+        result[0].getBitmap().recycle();
+        pipeline.shutdown();
+        file.delete();
+    }
+
+    @Test
+    public void testCancelledJobDeliversNothing() throws Exception {
+        File file = TestPhotos.writeJpeg("pipeline", 3024, 4032);
+        ImagePipeline pipeline = new ImagePipeline(new PhotoHandler());
+        final CountDownLatch cancelledDone = new CountDownLatch(1);
+        final CountDownLatch nextDone = new CountDownLatch(1);
+
+        ImagePipeline.Job job = pipeline.load(file.getAbsolutePath(),
+                new GameGrid(21, 34, 50, 50), null,
+                new ImagePipeline.Listener() {
+            @Override
+            public void onTilesReady(GameGrid gameGrid, TileAtlas tiles,
+                                     TileAtlas preview) {
+                cancelledDone.countDown();
+            }
+        });
+        job.cancel();
+        pipeline.load(file.getAbsolutePath(), new GameGrid(100, 100, 2, 2), null,
+                new ImagePipeline.Listener() {
+            @Override
+            public void onTilesReady(GameGrid gameGrid, TileAtlas tiles,
+                                     TileAtlas preview) {
+                nextDone.countDown();
+            }
+        });
+
+        assertTrue(nextDone.await(30, TimeUnit.SECONDS));
+        assertFalse(cancelledDone.await(1, TimeUnit.SECONDS));
+        assertTrue(job.isCancelled());
+        pipeline.shutdown();
+        file.delete();
+    }
+
+    @Test
+    public void testCancelledJobLeavesNothingInClearedCache()
+            throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        File directory = new File(context.getCacheDir(),
+                "pipeline-clear-test");
+        TileDiskCache cache = new TileDiskCache(directory);
+        cache.clear();
+        File cancelledFile = TestPhotos.writeJpeg("cancelled", 3024, 4032);
+        File nextFile = TestPhotos.writeJpeg("next", 300, 400);
+        ImagePipeline pipeline = new ImagePipeline(new PhotoHandler(),
+                cache);
+        final CountDownLatch nextDone = new CountDownLatch(1);
+
+        ImagePipeline.Job job = pipeline.load(
+                cancelledFile.getAbsolutePath(),
+                new GameGrid(21, 34, 50, 50), new GameGrid(42, 68, 25, 25),
+                new ImagePipeline.Listener() {
+            @Override
+            public void onTilesReady(GameGrid gameGrid, TileAtlas tiles,
+                                     TileAtlas preview) {
+            }
+        });
+        job.cancel();
+        pipeline.clearDiskCache();
+        pipeline.load(nextFile.getAbsolutePath(),
+                new GameGrid(100, 100, 2, 2), null,
+                new ImagePipeline.Listener() {
+            @Override
+            public void onTilesReady(GameGrid gameGrid, TileAtlas tiles,
+                                     TileAtlas preview) {
+                nextDone.countDown();
+            }
+        });
+
+        assertTrue(nextDone.await(30, TimeUnit.SECONDS));
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+        for(File file : files){
+            assertTrue(file.getName(), file.getName().startsWith(
+                    nextFile.getName()));
+        }
+        pipeline.shutdown();
+        cache.clear();
+        cancelledFile.delete();
+        nextFile.delete();
+    }
+}
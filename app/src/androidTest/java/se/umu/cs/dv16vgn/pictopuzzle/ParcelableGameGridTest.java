@@ -0,0 +1,165 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.os.Parcel;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the compact ParcelableGameGrid layout with the older layout in
+ * size and time, checks that both can be read back, and that corrupt
+ * parcels are rejected.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ParcelableGameGridTest {
+
+    private static final String TAG = "ParcelableGameGridTest";
+    private static final int[][] SIZES = {{3, 2}, {3, 3}, {4, 3}, {4, 4},
+            {5, 4}, {5, 5}, {10, 10}, {20, 20}, {50, 50}, {100, 100}};
+    private static final int REPEATS = 20;
+    private static final int TILE_WIDTH_POSITION = 4;
+    private static final int ROWS_POSITION = 12;
+    private static final int COLUMNS_POSITION = 16;
+    private static final int MARKED_POSITION = 20;
+    private static final int SENTINEL = 0x5E471E1;
+
+    private GameGrid scrambledGrid(int rows, int columns){
+        GameGrid gg = new GameGrid(10, 10, rows, columns);
+        Random random = new Random(rows * 1000 + columns);
+        for(int i = 0; i < rows * columns; i++){
+            gg.swapTiles(random.nextInt(rows * columns),
+                    random.nextInt(rows * columns));
+        }
+        gg.setMarkedTile(new Position(rows - 1, columns - 1));
+        return gg;
+    }
+
+    private GameGrid readBack(Parcel parcel){
+        parcel.setDataPosition(0);
+        return ParcelableGameGrid.CREATOR.createFromParcel(parcel)
+                .getGameGrid();
+    }
+
+    private void assertSameGrid(GameGrid expected, GameGrid actual){
+        assertEquals(expected.getRows(), actual.getRows());
+        assertEquals(expected.getColumns(), actual.getColumns());
+        assertEquals(expected.getTileWidth(), actual.getTileWidth());
+        assertEquals(expected.getTileHeight(), actual.getTileHeight());
+        assertEquals(expected.getMisplacedTiles(),
+                actual.getMisplacedTiles());
+        assertEquals(expected.getMarkedTile(), actual.getMarkedTile());
+        for(int i = 0; i < expected.getRows() * expected.getColumns(); i++){
+            assertEquals(expected.getImageSource(i), actual.getImageSource(i));
+        }
+    }
+
+    @Test
+    public void testCompactLayoutRoundTrip(){
+        for(int[] size : SIZES){
+            GameGrid gg = scrambledGrid(size[0], size[1]);
+            Parcel parcel = Parcel.obtain();
+            new ParcelableGameGrid(gg).writeToParcel(parcel, 0);
+            assertSameGrid(gg, readBack(parcel));
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void testLegacyLayoutIsStillReadable(){
+        for(int[] size : SIZES){
+            GameGrid gg = scrambledGrid(size[0], size[1]);
+            Parcel parcel = Parcel.obtain();
+            new ParcelableGameGrid(gg).writeLegacyToParcel(parcel, 0);
+            assertSameGrid(gg, readBack(parcel));
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * Writes a grid in the compact layout with one value replaced, and
+     * a sentinel after it.
+     * @param position The byte position of the value to replace.
+     */
+    private Parcel corruptCompact(GameGrid gg, int position, int value){
+        Parcel parcel = Parcel.obtain();
+        new ParcelableGameGrid(gg).writeToParcel(parcel, 0);
+        parcel.writeInt(SENTINEL);
+        int end = parcel.dataPosition();
+        parcel.setDataPosition(position);
+        parcel.writeInt(value);
+        parcel.setDataPosition(end);
+        return parcel;
+    }
+
+    @Test
+    public void testCorruptCompactParcelsAreRejected(){
+        GameGrid gg = scrambledGrid(3, 3);
+        int[][] corruptions = {{ROWS_POSITION, 4}, {COLUMNS_POSITION, 2},
+                {ROWS_POSITION, -3}, {ROWS_POSITION, 65536},
+                {MARKED_POSITION, 9}, {MARKED_POSITION, -2},
+                {TILE_WIDTH_POSITION, 0}, {0, 0xC0DE0007}};
+
+        for(int[] corruption : corruptions){
+            Parcel parcel = corruptCompact(gg, corruption[0], corruption[1]);
+            assertNull(readBack(parcel));
+            if(corruption[0] != 0){
+                assertEquals(SENTINEL, parcel.readInt());
+            }
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void testCorruptLegacyParcelIsRejected(){
+        GameGrid gg = scrambledGrid(3, 3);
+        Parcel parcel = Parcel.obtain();
+        new ParcelableGameGrid(gg).writeLegacyToParcel(parcel, 0);
+        parcel.setDataPosition(8);
+        parcel.writeInt(100000);
+
+        assertNull(readBack(parcel));
+        parcel.recycle();
+    }
+
+    @Test
+    public void testCompactLayoutIsSmallerAndFaster(){
+        for(int[] size : SIZES){
+            GameGrid gg = scrambledGrid(size[0], size[1]);
+            long legacyNanos = 0;
+            long compactNanos = 0;
+            int legacyBytes = 0;
+            int compactBytes = 0;
+
+            for(int r = 0; r < REPEATS; r++){
+                Parcel parcel = Parcel.obtain();
+                long start = System.nanoTime();
+                new ParcelableGameGrid(gg).writeLegacyToParcel(parcel, 0);
+                readBack(parcel);
+                legacyNanos += System.nanoTime() - start;
+                legacyBytes = parcel.dataSize();
+                parcel.recycle();
+
+                parcel = Parcel.obtain();
+                start = System.nanoTime();
+                new ParcelableGameGrid(gg).writeToParcel(parcel, 0);
+                readBack(parcel);
+                compactNanos += System.nanoTime() - start;
+                compactBytes = parcel.dataSize();
+                parcel.recycle();
+            }
+
+            Log.i(TAG, size[0] + "x" + size[1]
+                    + " legacy " + legacyBytes + " B "
+                    + legacyNanos / REPEATS / 1000 + " us"
+                    + ", compact " + compactBytes + " B "
+                    + compactNanos / REPEATS / 1000 + " us");
+            assertTrue(compactBytes < legacyBytes);
+        }
+    }
+}
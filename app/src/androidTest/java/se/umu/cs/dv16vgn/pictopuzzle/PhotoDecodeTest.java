@@ -0,0 +1,250 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.media.ExifInterface;
+import android.os.SystemClock;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares peak bitmap memory and decode time of the full resolution
+ * decode, the decode bounded by the grid area and the decode by tile
+ * regions, on JPEGs sized like 12 MP camera pictures in both
+ * orientations.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PhotoDecodeTest {
+
+    private static final String TAG = "PhotoDecodeTest";
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1700;
+
+    @Test
+    public void testBoundedDecodeUsesLessMemory() throws IOException {
+        int[][] photos = {{3024, 4032}, {4032, 3024}};
+
+        for(int[] size : photos){
+            File file = TestPhotos.writeJpeg(
+                    "decode-" + size[0] + "x" + size[1], size[0], size[1]);
+            PhotoHandler photoHandler = new PhotoHandler();
+
+            long start = SystemClock.elapsedRealtimeNanos();
+            Bitmap full = photoHandler.produceBitmapFromPath(
+                    file.getAbsolutePath());
+            long fullNanos = SystemClock.elapsedRealtimeNanos() - start;
+            long fullBytes = photoHandler.getPeakBitmapBytes();
+            full.recycle();
+
+            photoHandler.resetPeakBitmapBytes();
+            start = SystemClock.elapsedRealtimeNanos();
+            Bitmap bounded = photoHandler.produceBitmapFromPath(
+                    file.getAbsolutePath(), SCREEN_WIDTH, SCREEN_HEIGHT);
+            long boundedNanos = SystemClock.elapsedRealtimeNanos() - start;
+            long boundedBytes = photoHandler.getPeakBitmapBytes();
+
+            Log.i(TAG, size[0] + "x" + size[1]
+                    + " full " + fullBytes / 1024 + " KiB "
+                    + fullNanos / 1000000 + " ms, bounded "
+                    + boundedBytes / 1024 + " KiB "
+                    + boundedNanos / 1000000 + " ms, "
+                    + bounded.getWidth() + "x" + bounded.getHeight());
+            assertTrue(bounded.getWidth() >= SCREEN_WIDTH);
+            assertTrue(bounded.getHeight() >= SCREEN_HEIGHT);
+            assertTrue(bounded.getHeight() > bounded.getWidth());
+            assertTrue(boundedBytes * 2 < fullBytes);
+
+            bounded.recycle();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRegionDecodeNeverHoldsWholePhoto() throws IOException {
+        int[][] photos = {{3024, 4032}, {4032, 3024}};
+        String[] grids = {"3x2", "5x5", "50x50"};
+
+        for(int[] size : photos){
+            File file = TestPhotos.writeJpeg(
+                    "decode-" + size[0] + "x" + size[1], size[0], size[1]);
+            PhotoHandler photoHandler = new PhotoHandler();
+            Bitmap bounded = photoHandler.produceBitmapFromPath(
+                    file.getAbsolutePath(), SCREEN_WIDTH, SCREEN_HEIGHT);
+            long boundedBytes = photoHandler.getPeakBitmapBytes();
+            bounded.recycle();
+
+            for(String definition : grids){
+                GridSize grid = GridSize.parse(definition);
+                GameGrid gg = new GameGrid(SCREEN_WIDTH / grid.getColumns(),
+                        SCREEN_HEIGHT / grid.getRows(), grid.getRows(),
+                        grid.getColumns());
+
+                photoHandler.resetPeakBitmapBytes();
+                long start = SystemClock.elapsedRealtimeNanos();
+                TileAtlas atlas = photoHandler.produceTilesFromPath(
+                        file.getAbsolutePath(), gg);
+                long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+                long regionBytes = photoHandler.getPeakBitmapBytes();
+
+                Log.i(TAG, size[0] + "x" + size[1] + " " + definition
+                        + " regions " + regionBytes / 1024 + " KiB peak "
+                        + elapsed / 1000000 + " ms, bounded "
+                        + boundedBytes / 1024 + " KiB peak");
+                assertTrue(regionBytes < boundedBytes);
+                assertAtlasOf(gg, atlas);
+            }
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSplitFallbackPeakMemory() throws IOException {
+        int[][] photos = {{3024, 4032}, {4032, 3024}};
+        GameGrid gg = new GameGrid(SCREEN_WIDTH / 4, SCREEN_HEIGHT / 4, 4, 4);
+
+        for(int[] size : photos){
+            File file = TestPhotos.writeJpeg(
+                    "decode-" + size[0] + "x" + size[1], size[0], size[1]);
+            PhotoHandler photoHandler = new PhotoHandler();
+            Bitmap bounded = photoHandler.produceBitmapFromPath(
+                    file.getAbsolutePath(), SCREEN_WIDTH, SCREEN_HEIGHT);
+            long boundedBytes = photoHandler.getPeakBitmapBytes();
+            long gridBytes = (long) SCREEN_WIDTH * SCREEN_HEIGHT * 4;
+            bounded.recycle();
+
+            photoHandler.resetPeakBitmapBytes();
+            photoHandler.resetPixelWork();
+            TileAtlas atlas = photoHandler.produceSplitTilesFromPath(
+                    file.getAbsolutePath(), gg);
+            long splitBytes = photoHandler.getPeakBitmapBytes();
+
+            Log.i(TAG, size[0] + "x" + size[1] + " split "
+                    + splitBytes / 1024 + " KiB peak "
+                    + photoHandler.getPixelWork() / 1000 + " kpx, bounded "
+                    + boundedBytes / 1024 + " KiB peak");
+            assertTrue(splitBytes <= boundedBytes + gridBytes);
+            assertAtlasOf(gg, atlas);
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks that an atlas holds the tiles of a grid, then recycles it.
+     */
+    private void assertAtlasOf(GameGrid gg, TileAtlas atlas){
+        assertEquals(gg.getColumns(), atlas.getColumns());
+        assertEquals(gg.getRows(), atlas.getRows());
+        assertEquals(gg.getTileWidth(), atlas.getCellWidth());
+        assertEquals(gg.getTileHeight(), atlas.getCellHeight());
+        assertEquals(gg.getTileWidth() * gg.getColumns(),
+                atlas.getBitmap().getWidth());
+        assertEquals(gg.getTileHeight() * gg.getRows(),
+                atlas.getBitmap().getHeight());
+        atlas.getBitmap().recycle();
+    }
+
+    private static final int QUADRANT_COLORS[] = {Color.RED, Color.GREEN,
+            Color.BLUE, Color.WHITE};
+
+    private File writeQuadrantJpeg(int width, int height, int exif)
+            throws IOException {
+        Bitmap photo = Bitmap.createBitmap(width, height,
+                Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(photo);
+        for(int i = 0; i<4; i++){
+            canvas.save();
+            canvas.clipRect(i % 2 * width / 2, i / 2 * height / 2,
+                    (i % 2 + 1) * width / 2, (i / 2 + 1) * height / 2);
+            canvas.drawColor(QUADRANT_COLORS[i]);
+            canvas.restore();
+        }
+        File file = TestPhotos.writeJpeg(
+                "exif-" + exif + "-" + width + "x" + height, photo, 95);
+        photo.recycle();
+
+        ExifInterface exifInterface = new ExifInterface(
+                file.getAbsolutePath());
+        exifInterface.setAttribute(ExifInterface.TAG_ORIENTATION,
+                String.valueOf(exif));
+        exifInterface.saveAttributes();
+        return file;
+    }
+
+    private int nearestQuadrantColor(int color){
+        int best = 0;
+        int bestDistance = Integer.MAX_VALUE;
+        for(int i = 0; i<4; i++){
+            int distance = Math.abs(Color.red(color)
+                    - Color.red(QUADRANT_COLORS[i]))
+                    + Math.abs(Color.green(color)
+                    - Color.green(QUADRANT_COLORS[i]))
+                    + Math.abs(Color.blue(color)
+                    - Color.blue(QUADRANT_COLORS[i]));
+            if(distance < bestDistance){
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return QUADRANT_COLORS[best];
+    }
+
+    private void assertTurned(TileAtlas tiles, PhotoOrientation orientation,
+                              int width, int height, String label){
+        for(int x = 0; x<2; x++){
+            for(int y = 0; y<2; y++){
+                int centerX = (2 * x + 1) * orientation.getWidth() / 4;
+                int centerY = (2 * y + 1) * orientation.getHeight() / 4;
+                int stored[] = orientation.toStored(centerX, centerY,
+                        centerX + 1, centerY + 1);
+                int quadrant = (stored[0] < width / 2 ? 0 : 1)
+                        + (stored[1] < height / 2 ? 0 : 2);
+                int cellWidth = tiles.getCellWidth();
+                int cellHeight = tiles.getCellHeight();
+                assertEquals(label + " tile " + x + "," + y,
+                        QUADRANT_COLORS[quadrant], nearestQuadrantColor(
+                        tiles.getBitmap().getPixel(x * cellWidth
+                                + cellWidth / 2, y * cellHeight
+                                + cellHeight / 2)));
+            }
+        }
+    }
+
+    @Test
+    public void testTilesFollowAllEightExifOrientations() throws IOException {
+        int[][] photos = {{300, 400}, {400, 300}};
+        GameGrid gg = new GameGrid(60, 80, 2, 2);
+
+        for(int[] size : photos){
+            for(int exif = 1; exif<=8; exif++){
+                File file = writeQuadrantJpeg(size[0], size[1], exif);
+                PhotoHandler photoHandler = new PhotoHandler();
+                PhotoOrientation orientation = photoHandler.readOrientation(
+                        file.getAbsolutePath());
+                String label = size[0] + "x" + size[1] + " EXIF " + exif;
+
+                assertTurned(photoHandler.produceTilesFromPath(
+                        file.getAbsolutePath(), gg), orientation, size[0],
+                        size[1], label + " regions");
+                assertTurned(photoHandler.produceSplitTilesFromPath(
+                        file.getAbsolutePath(), gg), orientation, size[0],
+                        size[1], label + " split");
+
+                Bitmap whole = photoHandler.produceBitmapFromPath(
+                        file.getAbsolutePath());
+                assertEquals(orientation.getWidth(), whole.getWidth());
+                assertEquals(orientation.getHeight(), whole.getHeight());
+                whole.recycle();
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.widget.LinearLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that placeholders are delivered before the tiles and much
+ * sooner, and that putting the tiles in place of the placeholders keeps
+ * swapped tiles, the hidden blank and the marker where they are.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProgressiveLoadTest {
+
+    private static final String TAG = "ProgressiveLoadTest";
+
+    private Context context = InstrumentationRegistry.getTargetContext();
+
+    @Test
+    public void testPlaceholdersComeFirstAndSooner() throws Exception {
+        File file = TestPhotos.writeJpeg("progressive", 3024, 4032);
+        ImagePipeline pipeline = new ImagePipeline(new PhotoHandler());
+        final GameGrid gg = new GameGrid(216, 340, 5, 5);
+        final CountDownLatch done = new CountDownLatch(1);
+        final long[] placeholderTime = {-1};
+        final long[] tileTime = {-1};
+        final TileAtlas[] placeholders = new TileAtlas[1];
+        final long start = SystemClock.elapsedRealtimeNanos();
+
+        pipeline.load(file.getAbsolutePath(), gg, null,
+                new ImagePipeline.ProgressiveListener() {
+            @Override
+            public void onPlaceholdersReady(GameGrid gameGrid,
+                                            TileAtlas result) {
+                placeholderTime[0] = SystemClock.elapsedRealtimeNanos()
+                        - start;
+                placeholders[0] = result;
+            }
+
+            @Override
+            public void onTilesReady(GameGrid gameGrid, TileAtlas tiles,
+                                     TileAtlas preview) {
+                tileTime[0] = SystemClock.elapsedRealtimeNanos() - start;
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        Log.i(TAG, "5x5: placeholders after " + placeholderTime[0] / 1000000
+                + " ms, tiles after " + tileTime[0] / 1000000 + " ms");
+
+        assertNotNull(placeholders[0]);
+        assertTrue(placeholderTime[0] < tileTime[0]);
+        assertEquals(216 / PhotoHandler.PLACEHOLDER_SCALE,
+                placeholders[0].getCellWidth());
+        assertEquals(340 / PhotoHandler.PLACEHOLDER_SCALE,
+                placeholders[0].getCellHeight());
+        pipeline.shutdown();
+        file.delete();
+    }
+
+    private TileAtlas pieces(GameGrid gg, int width, int height){
+        return new TileAtlas(Bitmap.createBitmap(width * gg.getColumns(),
+                height * gg.getRows(), Bitmap.Config.ARGB_8888),
+                gg.getRows(), gg.getColumns(), width, height);
+    }
+
+    @Test
+    public void testReplacingPlaceholdersKeepsSwapsAndMarker(){
+        GameGrid gg = new GameGrid(40, 40, 3, 3);
+        GraphicsGrid graphicsGrid = new GraphicsGrid(3, 3, context);
+        TileAtlas placeholders = pieces(gg, 5, 5);
+        graphicsGrid.setupNewImagesForGrid(new LinearLayout(context),
+                placeholders, gg, false);
+
+        Position first = new Position(0, 0);
+        Position second = new Position(2, 1);
+        graphicsGrid.swapTileImages(first, second);
+        gg.swapTiles(gg.indexOf(0, 0), gg.indexOf(2, 1));
+        Position marked = new Position(1, 1);
+        graphicsGrid.markTile(marked, true, gg);
+
+        graphicsGrid.hideImageSource(8);
+        TileAtlas tiles = pieces(gg, 40, 40);
+        graphicsGrid.replaceAtlas(tiles);
+
+        assertSame(tiles, graphicsGrid.getPuzzleView().getAtlas());
+        assertEquals(gg.indexOf(2, 1),
+                graphicsGrid.getImageSourceAtPosition(first));
+        assertEquals(gg.indexOf(0, 0),
+                graphicsGrid.getImageSourceAtPosition(second));
+        assertEquals(gg.indexOf(1, 1),
+                graphicsGrid.getImageSourceAtPosition(marked));
+        assertEquals(-1, graphicsGrid.getImageSourceAtPosition(
+                new Position(2, 2)));
+        assertEquals(gg.indexOf(1, 1),
+                graphicsGrid.getPuzzleView().getMarkedTile());
+    }
+}
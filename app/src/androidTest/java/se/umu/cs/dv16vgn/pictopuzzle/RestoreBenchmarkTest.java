@@ -0,0 +1,128 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.widget.LinearLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares restoring a scrambled puzzle the old way, by trial swapping
+ * a solved grid until it matches, with placing every image straight
+ * from the saved GameGrid.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RestoreBenchmarkTest {
+
+    private static final String TAG = "RestoreBenchmarkTest";
+    private static final int TILE_SIZE = 8;
+    private static final int[] SIDES = {5, 20, 50};
+
+    private Context context = InstrumentationRegistry.getTargetContext();
+
+    private GameGrid scrambledGrid(int side){
+        GameGrid gg = new GameGrid(TILE_SIZE, TILE_SIZE, side, side);
+        Random random = new Random(side);
+        for(int i = gg.getRows() * gg.getColumns() - 1; i > 0; i--){
+            gg.swapTiles(i, random.nextInt(i + 1));
+        }
+        return gg;
+    }
+
+    private TileAtlas solvedPieces(int side){
+        return new TileAtlas(Bitmap.createBitmap(TILE_SIZE * side,
+                TILE_SIZE * side, Bitmap.Config.ARGB_8888), side, side,
+                TILE_SIZE, TILE_SIZE);
+    }
+
+    /**
+     * The restoration that Game.unsolvePuzzle used to do.
+     */
+
+    private void legacyRestore(GameGrid saved, GraphicsGrid graphicsGrid){
+        ArrayList<Position> wrongPositions = new ArrayList<>();
+        for(int i = 0; i < saved.getRows(); i++){
+            for(int j = 0; j < saved.getColumns(); j++){
+                if(!saved.getTiles()[i][j].isImageCorrect()){
+                    wrongPositions.add(new Position(i, j));
+                }
+            }
+        }
+        GameGrid tempGrid = new GameGrid(0, 0, saved.getRows(),
+                saved.getColumns());
+        GameTile[][] tempTiles = tempGrid.getTiles();
+        GameTile[][] oldTiles = saved.getTiles();
+
+        while(!wrongPositions.isEmpty()){
+            Position pos1 = wrongPositions.get(0);
+            int y1 = pos1.getY();
+            int x1 = pos1.getX();
+            for(int i = 1; i < wrongPositions.size(); i++){
+                Position pos2 = wrongPositions.get(i);
+                int y2 = pos2.getY();
+                int x2 = pos2.getX();
+                graphicsGrid.swapTileImages(pos1, pos2);
+                tempGrid.swapTileImageSourcePositions(pos1, pos2);
+
+                boolean pos1Match = tempTiles[y1][x1].equals(oldTiles[y1][x1]);
+                boolean pos2Match = tempTiles[y2][x2].equals(oldTiles[y2][x2]);
+
+                if(!pos1Match && !pos2Match){
+                    graphicsGrid.swapTileImages(pos1, pos2);
+                    tempGrid.swapTileImageSourcePositions(pos1, pos2);
+                }else if(pos1Match && pos2Match){
+                    wrongPositions.remove(pos1);
+                    wrongPositions.remove(pos2);
+                    break;
+                }else if(pos1Match){
+                    wrongPositions.remove(pos1);
+                    break;
+                }else {
+                    wrongPositions.remove(pos2);
+                    break;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRestoreTimeBeforeAndAfter(){
+        for(int side : SIDES){
+            GameGrid saved = scrambledGrid(side);
+            TileAtlas pieces = solvedPieces(side);
+
+            GraphicsGrid before = new GraphicsGrid(side, side, context);
+            long start = SystemClock.elapsedRealtimeNanos();
+            before.setupNewImagesForGrid(new LinearLayout(context),
+                    pieces, new GameGrid(TILE_SIZE, TILE_SIZE, side, side),
+                    false);
+            legacyRestore(saved, before);
+            long beforeNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+            GraphicsGrid after = new GraphicsGrid(side, side, context);
+            start = SystemClock.elapsedRealtimeNanos();
+            after.setupNewImagesForGrid(new LinearLayout(context),
+                    pieces, saved, false);
+            long afterNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+            for(int i = 0; i < side * side; i++){
+                Position p = saved.getPosition(i);
+                assertEquals(before.getImageSourceAtPosition(p),
+                        after.getImageSourceAtPosition(p));
+            }
+            Log.i(TAG, side + "x" + side + ": before "
+                    + beforeNanos / 1000000 + " ms, after "
+                    + afterNanos / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures how long a sliding hint takes on the device, with the time
+ * budget Game gives it, and how often the hint is optimal. Checks that
+ * the budget holds, with a margin for the checks being made every few
+ * thousand nodes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SlidingHintTest {
+
+    private static final String TAG = "SlidingHintTest";
+    private static final int[] SIDES = {4, 5};
+    private static final int PUZZLES = 50;
+    private static final long HINT_TIME_BUDGET = 100000000;
+    private static final long MARGIN = 50000000;
+
+    @Test
+    public void testHintsKeepTheirTimeBudget(){
+        for(int side : SIDES){
+            SlidingSolver solver = SlidingSolver.build(side, side);
+            long times[] = new long[PUZZLES];
+            int optimal = 0;
+
+            for(int i = 0; i < PUZZLES; i++){
+                GameGrid gg = new GameGrid(10, 10, side, side);
+                new Scrambler(i, Scrambler.ALL_TILES).scrambleSliding(gg);
+                long start = System.nanoTime();
+                int[] solution = solver.solve(gg, Long.MAX_VALUE,
+                        HINT_TIME_BUDGET);
+                int tile = solution != null ? solution[0]
+                        : solver.getGreedyMove(gg);
+                times[i] = System.nanoTime() - start;
+
+                assertTrue(SlidingPuzzle.isMoveValid(gg, tile));
+                if(solution != null){
+                    optimal++;
+                }
+            }
+            Arrays.sort(times);
+            long p99 = times[(int) Math.ceil(0.99 * PUZZLES) - 1];
+            Log.i(TAG, side + "x" + side + ": " + optimal + "/" + PUZZLES
+                    + " optimal, p50 " + times[PUZZLES / 2] / 1000000
+                    + " ms, p99 " + p99 / 1000000 + " ms");
+            assertTrue(p99 <= HINT_TIME_BUDGET + MARGIN);
+        }
+    }
+}
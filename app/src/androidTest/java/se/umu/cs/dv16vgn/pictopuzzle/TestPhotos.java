@@ -0,0 +1,62 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.test.InstrumentationRegistry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes the photos used by the instrumented tests as JPEG files in the
+ * cache directory of the app being tested.
+ */
+final class TestPhotos {
+
+    private static final int PHOTO_COLOR = 0xFF336699;
+
+    private TestPhotos(){
+    }
+
+    /**
+     * Writes a photo of a single colour.
+     * @param name The name of the file, without extension.
+     * @param width The width of the photo.
+     * @param height The height of the photo.
+     * @return The file.
+     */
+
+    static File writeJpeg(String name, int width, int height)
+            throws IOException {
+        Bitmap photo = Bitmap.createBitmap(width, height,
+                Bitmap.Config.ARGB_8888);
+        photo.eraseColor(PHOTO_COLOR);
+        try{
+            return writeJpeg(name, photo, 90);
+        }finally {
+            photo.recycle();
+        }
+    }
+
+    /**
+     * Writes a bitmap as a photo.
+     * @param name The name of the file, without extension.
+     * @param photo The bitmap to write, it is not recycled.
+     * @param quality The JPEG quality, 0 to 100.
+     * @return The file.
+     */
+
+    static File writeJpeg(String name, Bitmap photo, int quality)
+            throws IOException {
+        Context context = InstrumentationRegistry.getTargetContext();
+        File file = new File(context.getCacheDir(), name + ".jpg");
+        FileOutputStream out = new FileOutputStream(file);
+        try{
+            photo.compress(Bitmap.CompressFormat.JPEG, quality, out);
+        }finally {
+            out.close();
+        }
+        return file;
+    }
+}
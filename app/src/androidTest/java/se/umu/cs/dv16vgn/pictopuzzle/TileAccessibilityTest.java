@@ -0,0 +1,77 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityNodeProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that accessibility services see every tile of a PuzzleView as
+ * a clickable virtual view with its row, column, bounds and selected
+ * state, and that clicking one clicks the tile.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TileAccessibilityTest {
+
+    private Context context = InstrumentationRegistry.getTargetContext();
+
+    @Test
+    public void testTilesAreVirtualViewsThatCanBeClicked(){
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+                new Runnable() {
+            @Override
+            public void run() {
+                final PuzzleView view = new PuzzleView(context);
+                view.setGrid(3, 4, 50, 70);
+                view.measure(View.MeasureSpec.makeMeasureSpec(0,
+                        View.MeasureSpec.UNSPECIFIED),
+                        View.MeasureSpec.makeMeasureSpec(0,
+                        View.MeasureSpec.UNSPECIFIED));
+                view.layout(0, 0, view.getMeasuredWidth(),
+                        view.getMeasuredHeight());
+                final int clicked[] = {-1, -1};
+                view.setOnTileClickListener(
+                        new PuzzleView.OnTileClickListener() {
+                    @Override
+                    public void onTileClick(int row, int column) {
+                        clicked[0] = row;
+                        clicked[1] = column;
+                        view.setMarkedTile(row * 4 + column);
+                    }
+                });
+                AccessibilityNodeProvider provider =
+                        view.getAccessibilityNodeProvider();
+                assertNotNull(provider);
+
+                int index = 2 * 4 + 1;
+                AccessibilityNodeInfo node =
+                        provider.createAccessibilityNodeInfo(index);
+                Rect bounds = new Rect();
+                node.getBoundsInParent(bounds);
+                assertEquals(new Rect(50, 140, 100, 210), bounds);
+                assertEquals(context.getString(R.string.tile_description,
+                        3, 2), node.getContentDescription().toString());
+                assertTrue(node.isClickable());
+                assertFalse(node.isSelected());
+                node.recycle();
+
+                assertTrue(provider.performAction(index,
+                        AccessibilityNodeInfo.ACTION_CLICK, null));
+                assertEquals(2, clicked[0]);
+                assertEquals(1, clicked[1]);
+
+                node = provider.createAccessibilityNodeInfo(index);
+                assertTrue(node.isSelected());
+                node.recycle();
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the scramble animation of large grids frame by frame on the main
+ * thread and checks that the 99th percentile of the frame times, from
+ * the start of a frame to the end of its drawing, stays within 16 ms.
+ * Also checks that an animated swap ends with the images swapped.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TileAnimationTest {
+
+    private static final String TAG = "TileAnimationTest";
+    private static final int GRID_WIDTH = 1000;
+    private static final int GRID_HEIGHT = 1500;
+    private static final int[] SIDES = {20, 50};
+    private static final long FRAME_BUDGET = 16000000L;
+
+    private Context context = InstrumentationRegistry.getTargetContext();
+
+    private GraphicsGrid setUpGrid(GameGrid gg){
+        TileAtlas atlas = new TileAtlas(Bitmap.createBitmap(
+                gg.getTileWidth() * gg.getColumns(),
+                gg.getTileHeight() * gg.getRows(), Bitmap.Config.RGB_565),
+                gg);
+        GraphicsGrid graphicsGrid = new GraphicsGrid(gg.getRows(),
+                gg.getColumns(), context);
+        graphicsGrid.setupNewImagesForGrid(new LinearLayout(context), atlas,
+                gg, false);
+        PuzzleView view = graphicsGrid.getPuzzleView();
+        view.measure(View.MeasureSpec.makeMeasureSpec(GRID_WIDTH,
+                View.MeasureSpec.AT_MOST), View.MeasureSpec.makeMeasureSpec(
+                GRID_HEIGHT, View.MeasureSpec.AT_MOST));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        return graphicsGrid;
+    }
+
+    /**
+     * Steps and draws frames until no image moves.
+     * @return The amount of frames.
+     */
+    private int runFrames(PuzzleView view, Canvas canvas){
+        int frames = 0;
+        while(view.stepAnimation(System.nanoTime())){
+            view.draw(canvas);
+            frames++;
+        }
+        view.draw(canvas);
+        return frames + 1;
+    }
+
+    @Test
+    public void testScrambleFrameTimesOnLargeGrids(){
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+                new Runnable() {
+            @Override
+            public void run() {
+                Canvas canvas = new Canvas(Bitmap.createBitmap(GRID_WIDTH,
+                        GRID_HEIGHT, Bitmap.Config.ARGB_8888));
+                for(int side : SIDES){
+                    GameGrid gg = new GameGrid(GRID_WIDTH / side,
+                            GRID_HEIGHT / side, side, side);
+                    new Scrambler(side, Scrambler.ALL_TILES).scramble(gg);
+                    GraphicsGrid graphicsGrid = setUpGrid(gg);
+                    PuzzleView view = graphicsGrid.getPuzzleView();
+
+                    graphicsGrid.animateScramble(gg);
+                    assertTrue(view.isAnimating());
+                    int frames = runFrames(view, canvas);
+
+                    FrameStats stats = view.getFrameStats();
+                    long p99 = stats.getPercentile(99);
+                    Log.i(TAG, side + "x" + side + ": " + frames
+                            + " frames, p50 "
+                            + stats.getPercentile(50) / 1000 + " us, p99 "
+                            + p99 / 1000 + " us");
+                    assertTrue(frames > 1);
+                    assertTrue(stats.getCount() > 1);
+                    assertTrue(p99 <= FRAME_BUDGET);
+                    assertFalse(view.isAnimating());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testAnimatedSwapEndsSwapped(){
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+                new Runnable() {
+            @Override
+            public void run() {
+                GameGrid gg = new GameGrid(40, 40, 3, 3);
+                GraphicsGrid graphicsGrid = setUpGrid(gg);
+                PuzzleView view = graphicsGrid.getPuzzleView();
+                Position first = new Position(0, 0);
+                Position second = new Position(2, 1);
+                view.setMarkedTile(0);
+
+                graphicsGrid.animateSwap(first, second);
+                assertTrue(view.isAnimating());
+                assertEquals(gg.indexOf(2, 1),
+                        graphicsGrid.getImageSourceAtPosition(first));
+                assertEquals(0, graphicsGrid.getImageSourceAtPosition(second));
+                assertEquals(gg.indexOf(2, 1), view.getMarkedTile());
+
+                assertFalse(view.stepAnimation(System.nanoTime()
+                        + PuzzleView.SWAP_DURATION));
+                assertFalse(view.isAnimating());
+            }
+        });
+    }
+}
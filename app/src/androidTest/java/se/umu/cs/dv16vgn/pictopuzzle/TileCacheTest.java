@@ -0,0 +1,80 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the TileCache tells grid geometries apart, hands out the
+ * atlases it holds, keeps within its byte budget and empties itself
+ * when memory is trimmed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TileCacheTest {
+
+    private TileAtlas makeTiles(GameGrid gameGrid){
+        return new TileAtlas(Bitmap.createBitmap(gameGrid.getTileWidth()
+                * gameGrid.getColumns(), gameGrid.getTileHeight()
+                * gameGrid.getRows(), Bitmap.Config.ARGB_8888), gameGrid);
+    }
+
+    @Test
+    public void testHitOnlyForSamePathAndGeometry(){
+        TileCache cache = new TileCache(1024 * 1024);
+        GameGrid gameGrid = new GameGrid(10, 20, 3, 4);
+        cache.put("a.jpg", gameGrid, makeTiles(gameGrid));
+
+        assertNotNull(cache.get("a.jpg", new GameGrid(10, 20, 3, 4)));
+        assertNull(cache.get("b.jpg", gameGrid));
+        assertNull(cache.get("a.jpg", new GameGrid(10, 20, 4, 3)));
+        assertNull(cache.get("a.jpg", new GameGrid(20, 10, 3, 4)));
+    }
+
+    @Test
+    public void testAtlasIsShared(){
+        TileCache cache = new TileCache(1024 * 1024);
+        GameGrid gameGrid = new GameGrid(10, 10, 2, 2);
+        TileAtlas tiles = makeTiles(gameGrid);
+        cache.put("a.jpg", gameGrid, tiles);
+
+        assertSame(tiles, cache.get("a.jpg", gameGrid));
+        assertEquals(tiles.getBitmap().getByteCount(), cache.getByteCount());
+    }
+
+    @Test
+    public void testEvictsToByteBudget(){
+        GameGrid gameGrid = new GameGrid(16, 16, 2, 2);
+        int bytes = TileCache.byteCount(makeTiles(gameGrid));
+        TileCache cache = new TileCache(bytes * 2);
+
+        cache.put("a.jpg", gameGrid, makeTiles(gameGrid));
+        cache.put("b.jpg", gameGrid, makeTiles(gameGrid));
+        cache.get("a.jpg", gameGrid);
+        cache.put("c.jpg", gameGrid, makeTiles(gameGrid));
+
+        assertNotNull(cache.get("a.jpg", gameGrid));
+        assertNull(cache.get("b.jpg", gameGrid));
+        assertNotNull(cache.get("c.jpg", gameGrid));
+        assertTrue(cache.getByteCount() <= cache.getMaxByteCount());
+    }
+
+    @Test
+    public void testTrimMemory(){
+        GameGrid gameGrid = new GameGrid(16, 16, 2, 2);
+        TileCache cache = new TileCache(1024 * 1024);
+        cache.put("a.jpg", gameGrid, makeTiles(gameGrid));
+        cache.put("b.jpg", gameGrid, makeTiles(gameGrid));
+
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertNull(cache.get("a.jpg", gameGrid));
+        assertNotNull(cache.get("b.jpg", gameGrid));
+
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(0, cache.getByteCount());
+    }
+}
@@ -0,0 +1,99 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that tiles written to the TileDiskCache are read back with the
+ * same pixels, only for the same geometry, and that clearing it removes
+ * every entry.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TileDiskCacheTest {
+
+    private static final String PHOTO = "/photos/temp123.jpg";
+
+    private TileDiskCache cache;
+
+    @Before
+    public void setUp(){
+        Context context = InstrumentationRegistry.getTargetContext();
+        cache = new TileDiskCache(new File(context.getCacheDir(),
+                "tile-disk-cache-test"));
+        cache.clear();
+    }
+
+    private TileAtlas makeTiles(GameGrid gameGrid){
+        int width = gameGrid.getTileWidth();
+        int height = gameGrid.getTileHeight();
+        Bitmap bitmap = Bitmap.createBitmap(width * gameGrid.getColumns(),
+                height * gameGrid.getRows(), Bitmap.Config.ARGB_8888);
+        for(int x = 0; x<gameGrid.getColumns(); x++){
+            for(int y = 0; y<gameGrid.getRows(); y++){
+                int color = x % 2 == 0 ? 0xFFFF0000 : 0xFF0000FF;
+                for(int i = 0; i<width; i++){
+                    for(int j = 0; j<height; j++){
+                        bitmap.setPixel(x * width + i, y * height + j,
+                                color);
+                    }
+                }
+                bitmap.setPixel(x * width, y * height,
+                        y == 0 ? 0xFF00FF00 : 0xFFFFFFFF);
+            }
+        }
+        return new TileAtlas(bitmap, gameGrid);
+    }
+
+    @Test
+    public void testRoundTrip(){
+        GameGrid gameGrid = new GameGrid(30, 20, 3, 4);
+        assertTrue(cache.write(PHOTO, gameGrid, makeTiles(gameGrid)));
+
+        TileAtlas tiles = cache.read(PHOTO, new GameGrid(30, 20, 3, 4));
+        assertNotNull(tiles);
+        assertEquals(4, tiles.getColumns());
+        assertEquals(3, tiles.getRows());
+        assertEquals(30, tiles.getCellWidth());
+        assertEquals(20, tiles.getCellHeight());
+        Bitmap bitmap = tiles.getBitmap();
+        assertEquals(Bitmap.Config.RGB_565, bitmap.getConfig());
+        assertEquals(120, bitmap.getWidth());
+        assertEquals(60, bitmap.getHeight());
+        for(int x = 0; x<4; x++){
+            for(int y = 0; y<3; y++){
+                assertEquals(x % 2 == 0 ? 0xFFFF0000 : 0xFF0000FF,
+                        bitmap.getPixel(x * 30 + 5, y * 20 + 5));
+                assertEquals(y == 0 ? 0xFF00FF00 : 0xFFFFFFFF,
+                        bitmap.getPixel(x * 30, y * 20));
+            }
+        }
+    }
+
+    @Test
+    public void testMissForOtherGeometryOrPhoto(){
+        GameGrid gameGrid = new GameGrid(30, 20, 3, 4);
+        assertTrue(cache.write(PHOTO, gameGrid, makeTiles(gameGrid)));
+
+        assertNull(cache.read(PHOTO, new GameGrid(30, 20, 4, 3)));
+        assertNull(cache.read(PHOTO, new GameGrid(20, 30, 3, 4)));
+        assertNull(cache.read("/photos/temp456.jpg", gameGrid));
+    }
+
+    @Test
+    public void testClear(){
+        GameGrid gameGrid = new GameGrid(10, 10, 2, 2);
+        assertTrue(cache.write(PHOTO, gameGrid, makeTiles(gameGrid)));
+        cache.clear();
+        assertNull(cache.read(PHOTO, gameGrid));
+    }
+}
@@ -0,0 +1,136 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that taps are found on the right tile from the coordinates
+ * within the PuzzleView, for grid areas of odd sizes like those of split
+ * screens, cutouts and tablets, wherever the view is placed, and that
+ * the time from a tap to its feedback is kept.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TileHitTest {
+
+    /**
+     * Grid areas as {width, height, rows, columns}.
+     */
+    private static final int[][] GEOMETRIES = {{1080, 2076, 50, 50},
+            {1080, 905, 20, 20}, {1079, 1733, 7, 3}, {1600, 2452, 10, 10},
+            {321, 187, 2, 3}, {2560, 1492, 5, 4}};
+
+    private Context context = InstrumentationRegistry.getTargetContext();
+
+    private PuzzleView placedView(GameGrid gg, int left, int top){
+        PuzzleView view = new PuzzleView(context);
+        view.setGrid(gg.getRows(), gg.getColumns(), gg.getTileWidth(),
+                gg.getTileHeight());
+        view.measure(View.MeasureSpec.makeMeasureSpec(0,
+                View.MeasureSpec.UNSPECIFIED), View.MeasureSpec.makeMeasureSpec(
+                0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(left, top, left + view.getMeasuredWidth(),
+                top + view.getMeasuredHeight());
+        return view;
+    }
+
+    @Test
+    public void testEveryTileIsFoundInOddGeometries(){
+        for(int[] geometry : GEOMETRIES){
+            GameGrid gg = new GameGrid(geometry[0] / geometry[3],
+                    geometry[1] / geometry[2], geometry[2], geometry[3]);
+            PuzzleView view = placedView(gg, 37, 211);
+            int width = gg.getTileWidth();
+            int height = gg.getTileHeight();
+            String label = geometry[0] + "x" + geometry[1] + " "
+                    + geometry[2] + "x" + geometry[3];
+
+            for(int row = 0; row<gg.getRows(); row++){
+                for(int column = 0; column<gg.getColumns(); column++){
+                    int index = gg.indexOf(row, column);
+                    float left = column * width;
+                    float top = row * height;
+                    assertEquals(label, index, view.tileAt(left, top));
+                    assertEquals(label, index, view.tileAt(
+                            left + width / 2f, top + height / 2f));
+                    assertEquals(label, index, view.tileAt(
+                            left + width - 0.01f, top + height - 0.01f));
+                }
+            }
+            int gridWidth = width * gg.getColumns();
+            int gridHeight = height * gg.getRows();
+            assertEquals(label, -1, view.tileAt(gridWidth, 0));
+            assertEquals(label, -1, view.tileAt(0, gridHeight));
+            assertEquals(label, -1, view.tileAt(geometry[0] - 0.5f,
+                    geometry[1] - 0.5f));
+            assertEquals(label, -1, view.tileAt(-0.5f, 0));
+        }
+    }
+
+    private void tap(PuzzleView view, float x, float y, float upX,
+                     float upY){
+        long now = SystemClock.uptimeMillis();
+        MotionEvent down = MotionEvent.obtain(now, now,
+                MotionEvent.ACTION_DOWN, x, y, 0);
+        MotionEvent up = MotionEvent.obtain(now, now,
+                MotionEvent.ACTION_UP, upX, upY, 0);
+        view.onTouchEvent(down);
+        view.onTouchEvent(up);
+        down.recycle();
+        up.recycle();
+    }
+
+    @Test
+    public void testTapsClickTilesAndKeepLatency(){
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+                new Runnable() {
+            @Override
+            public void run() {
+                GameGrid gg = new GameGrid(1079 / 3, 1733 / 7, 7, 3);
+                final PuzzleView view = placedView(gg, 0, 483);
+                final int clicked[] = {-1, -1};
+                view.setOnTileClickListener(
+                        new PuzzleView.OnTileClickListener() {
+                    @Override
+                    public void onTileClick(int row, int column) {
+                        clicked[0] = row;
+                        clicked[1] = column;
+                        if(row != 0){
+                            view.setMarkedTile(row * 3 + column);
+                        }
+                    }
+                });
+                Canvas canvas = new Canvas(Bitmap.createBitmap(
+                        view.getWidth(), view.getHeight(),
+                        Bitmap.Config.ARGB_8888));
+
+                tap(view, 2 * 359 + 10, 6 * 247 + 10, 2 * 359 + 20,
+                        6 * 247 + 5);
+                assertEquals(6, clicked[0]);
+                assertEquals(2, clicked[1]);
+                assertEquals(gg.indexOf(6, 2), view.getMarkedTile());
+                view.draw(canvas);
+                assertEquals(1, view.getInputLatency().getCount());
+
+                tap(view, 10, 10, 10, 10);
+                assertEquals(0, clicked[0]);
+                view.draw(canvas);
+                assertEquals(1, view.getInputLatency().getCount());
+
+                clicked[0] = -1;
+                tap(view, 10, 300, 400, 300);
+                assertEquals(-1, clicked[0]);
+            }
+        });
+    }
+}
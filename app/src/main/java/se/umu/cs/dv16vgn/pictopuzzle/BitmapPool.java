@@ -0,0 +1,270 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <h1>BitmapPool</h1>
+ * Process wide pool of mutable bitmaps that are no longer shown, so new
+ * tiles and decode buffers can reuse their memory instead of allocating.
+ * Bitmaps are kept in buckets by allocation size. A request is served
+ * by the smallest pooled bitmap that is big enough, but no more than
+ * MAX_SIZE_MULTIPLE times too big, and reconfigured to the size asked
+ * for. Only put bitmaps in the pool that nothing else draws or shows.
+ * <p>
+ * instance - The pool of the process.
+ * <p>
+ * buckets - The pooled bitmaps by allocation byte count.
+ * <p>
+ * maxBytes - The most bytes of bitmaps to hold.
+ * <p>
+ * bytes - The bytes of bitmaps held.
+ * <p>
+ * hits, misses - How many requests were served from the pool and how
+ * many had to allocate.
+ *
+ */
+
+public class BitmapPool implements ComponentCallbacks2 {
+
+    private static final int MEMORY_CLASS_FRACTION = 8;
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    private static BitmapPool instance;
+
+    private TreeMap<Integer, ArrayDeque<Bitmap>> buckets = new TreeMap<>();
+    private long maxBytes;
+    private long bytes = 0;
+    private int hits = 0;
+    private int misses = 0;
+
+    /**
+     * Standard constructor.
+     * @param maxBytes The most bytes of bitmaps to hold, 0 to never
+     *                 hold any.
+     */
+
+    public BitmapPool(long maxBytes){
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the pool of the process, creating it the first time. It
+     * holds an eighth of the memory class of the device.
+     * @param context Any Context of the app.
+     * @return The pool.
+     */
+
+    public static synchronized BitmapPool getInstance(Context context){
+        if(instance == null){
+            Context application = context.getApplicationContext();
+            ActivityManager activityManager = (ActivityManager)
+                    application.getSystemService(Context.ACTIVITY_SERVICE);
+            long maxBytes = activityManager.getMemoryClass() * 1024L * 1024L
+                    / MEMORY_CLASS_FRACTION;
+            instance = new BitmapPool(maxBytes);
+            application.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Gets a cleared bitmap, from the pool if there is one that fits.
+     * @param width The width of the bitmap.
+     * @param height The height of the bitmap.
+     * @param config The config of the bitmap.
+     * @return A mutable bitmap of the size and config, all transparent.
+     */
+
+    public Bitmap get(int width, int height, Bitmap.Config config){
+        Bitmap bitmap = getDirty(width, height, config);
+        if(bitmap == null){
+            return Bitmap.createBitmap(width, height, config);
+        }
+        bitmap.eraseColor(0);
+        return bitmap;
+    }
+
+    /**
+     * Gets a bitmap from the pool without clearing it, for decoding into
+     * with inBitmap or drawing over completely. Counts a miss and
+     * returns null if there is none that fits.
+     * @param width The width of the bitmap.
+     * @param height The height of the bitmap.
+     * @param config The config of the bitmap.
+     * @return A mutable bitmap of the size and config, or null.
+     */
+
+    public synchronized Bitmap getDirty(int width, int height,
+                                        Bitmap.Config config){
+        int needed = width * height * bytesPerPixel(config);
+        Map.Entry<Integer, ArrayDeque<Bitmap>> entry =
+                buckets.ceilingEntry(needed);
+        if(entry == null || entry.getKey() > needed * MAX_SIZE_MULTIPLE){
+            misses++;
+            return null;
+        }
+        Bitmap bitmap = entry.getValue().poll();
+        if(entry.getValue().isEmpty()){
+            buckets.remove(entry.getKey());
+        }
+        bytes -= entry.getKey();
+        hits++;
+        bitmap.reconfigure(width, height, config);
+        return bitmap;
+    }
+
+    /**
+     * Puts a bitmap in the pool, or recycles it if it cannot be reused
+     * or the pool is full. Larger bitmaps are evicted first to make
+     * room.
+     * @param bitmap The bitmap, which must not be used after this.
+     */
+
+    public synchronized void put(Bitmap bitmap){
+        if(bitmap == null || bitmap.isRecycled()){
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if(!bitmap.isMutable() || size > maxBytes
+                || bitmap.getConfig() == null){
+            bitmap.recycle();
+            return;
+        }
+        ArrayDeque<Bitmap> bucket = buckets.get(size);
+        if(bucket == null){
+            bucket = new ArrayDeque<>();
+            buckets.put(size, bucket);
+        }
+        bucket.push(bitmap);
+        bytes += size;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * Puts all tiles of a matrix in the pool.
+     * @param tiles The tiles, may be null or hold nulls.
+     */
+
+    public void putAll(Bitmap[][] tiles){
+        if(tiles == null){
+            return;
+        }
+        for(Bitmap[] column : tiles){
+            if(column != null){
+                for(Bitmap tile : column){
+                    put(tile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recycles pooled bitmaps, largest first, until the pool holds no
+     * more than the given bytes.
+     * @param size The most bytes to keep.
+     */
+
+    private synchronized void trimToSize(long size){
+        while(bytes > size && !buckets.isEmpty()){
+            Map.Entry<Integer, ArrayDeque<Bitmap>> entry =
+                    buckets.lastEntry();
+            entry.getValue().poll().recycle();
+            if(entry.getValue().isEmpty()){
+                buckets.remove(entry.getKey());
+            }
+            bytes -= entry.getKey();
+        }
+    }
+
+    /**
+     * Counts the bytes per pixel of a config.
+     * @param config The config.
+     * @return The bytes per pixel.
+     */
+
+    static int bytesPerPixel(Bitmap.Config config){
+        if(config == Bitmap.Config.ALPHA_8){
+            return 1;
+        }else if(config == Bitmap.Config.RGB_565){
+            return 2;
+        }
+        return 4;
+    }
+
+    /**
+     * Empties the pool.
+     */
+
+    public void clear(){
+        trimToSize(0);
+    }
+
+    /**
+     * Getter.
+     * @return The bytes of bitmaps held.
+     */
+
+    public synchronized long getByteCount(){
+        return bytes;
+    }
+
+    /**
+     * Getter.
+     * @return How many requests were served from the pool.
+     */
+
+    public synchronized int getHitCount(){
+        return hits;
+    }
+
+    /**
+     * Getter.
+     * @return How many requests had to allocate.
+     */
+
+    public synchronized int getMissCount(){
+        return misses;
+    }
+
+    /**
+     * Empties the pool when the app is in the background and the
+     * system is short of memory, halves it when the app is running
+     * short.
+     * @param level The trim level.
+     */
+
+    @Override
+    public void onTrimMemory(int level) {
+        if(level >= TRIM_MEMORY_BACKGROUND){
+            clear();
+        }else if(level >= TRIM_MEMORY_RUNNING_LOW){
+            trimToSize(getByteCount() / 2);
+        }
+    }
+
+    /**
+     * Empties the pool.
+     */
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    /**
+     * Not used.
+     * @param configuration The new configuration.
+     */
+
+    @Override
+    public void onConfigurationChanged(Configuration configuration) {
+    }
+}
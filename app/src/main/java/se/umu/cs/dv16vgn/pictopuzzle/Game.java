@@ -1,20 +1,23 @@
 package se.umu.cs.dv16vgn.pictopuzzle;
 
+import android.app.ActivityManager;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.Point;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
 import android.provider.MediaStore;
 import android.support.v4.content.FileProvider;
 import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.Display;
 import android.view.Gravity;
 import android.view.LayoutInflater;
@@ -30,8 +33,10 @@ import android.widget.TextView;
 import android.widget.Toast;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * <h1>Game</h1>
@@ -43,6 +48,25 @@ import java.util.Random;
  * <p>
  * photoHandler - The PhotoHandler in use.
  * <p>
+ * imagePipeline - Makes the tiles of the photo off the main thread.
+ * <p>
+ * tileDiskCache - Keeps the tiles of the photo on disk, so they survive
+ * the death of the process.
+ * <p>
+ * tileJob - The tiles being made, null when none are.
+ * <p>
+ * tilesPlaced - Says if the grid shows tiles or their placeholders and
+ * can be played.
+ * <p>
+ * loadStartTime - When the tiles of the grid started loading, in
+ * System.nanoTime.
+ * <p>
+ * showScramble - Says if the next grid placed is shown being scrambled.
+ * <p>
+ * timeToFirstInteractiveFrame - The milliseconds from the start of
+ * loading to the first frame drawn with a playable grid, -1 while
+ * unknown.
+ * <p>
  * mPopupWindow - A popup window used to display help text.
  * <p>
  * helpIsVisible - Says if the help window is visible.
@@ -52,20 +76,54 @@ import java.util.Random;
  * <p>
  * alertIsVisible - Says if the dialog window is visible or not.
  * <p>
- * gameType - The type of game in play, either (0) Free Play
- * or (1) Arcade Mode.
- * <p>
- * screenHeightOffset - Used to get the proper height of the activity.
+ * gameType - The type of game in play, either (0) Free Play,
+ * (1) Arcade Mode or (2) Sliding Puzzle.
  * <p>
  * selectedGridType - The currently selected grid.
  * <p>
  * random - Used to randomize stuff.
  * <p>
+ * seed - The seed the current puzzle was scrambled with.
+ * <p>
+ * seedRequested - Says if seed was given by the starting intent and
+ * should be used for the next puzzle.
+ * <p>
+ * solver - Tracks the least amount of swaps left in the puzzle.
+ * <p>
+ * moves - The amount of swaps made in the current puzzle.
+ * <p>
+ * par - The least amount of moves the current puzzle could be solved in,
+ * -1 while unknown.
+ * <p>
+ * slidingSolver - Finds optimal moves in Sliding Puzzle, null while its
+ * pattern databases are being prepared.
+ * <p>
+ * solverExecutor - Prepares slidingSolver and runs its searches one at
+ * a time, off the main thread. Shut down when the activity is destroyed.
+ * <p>
+ * loadTask, parTask, hintTask - The tasks given to solverExecutor that
+ * have not delivered their result, null when there is none.
+ * <p>
+ * solverRound - Counts the puzzles slidingSolver has been prepared for,
+ * so that results for an earlier puzzle are dropped.
+ * <p>
+ * parPuzzle - The puzzle whose par is still to be searched for, null
+ * when the par is known or given up on.
+ * <p>
+ * PAR_NODE_BUDGET - The most nodes searched for the par of a sliding
+ * puzzle.
+ * <p>
+ * HINT_TIME_BUDGET - The most time, in nanoseconds, searched for a
+ * sliding hint before falling back on the greedy move. A time rather
+ * than a node budget keeps hints as quick on slow devices.
+ * <p>
  * REQUEST_TAKE_PHOTO - Constant for taking photos.
  * <p>
- * photoPath - The path to the photo.
+ * TILE_CACHE_DIR - The directory of tileDiskCache in the cache dir.
  * <p>
- * gridSizes - An array containing the different difficulties.
+ * TAG - The log tag.
+ * <p>
+ * photoPath - The path to the photo.
  * <p>
  * arcadeRounds - The current round in Arcade Mode.
  * <p>
@@ -78,7 +136,14 @@ public class Game extends AppCompatActivity {
 
     private GameGrid gameGrid;
     private GraphicsGrid graphicsGrid;
-    private PhotoHandler photoHandler = new PhotoHandler();
+    private PhotoHandler photoHandler;
+    private ImagePipeline imagePipeline;
+    private TileDiskCache tileDiskCache;
+    private ImagePipeline.Job tileJob;
+    private boolean tilesPlaced = false;
+    private long loadStartTime = 0;
+    private boolean showScramble = false;
+    private long timeToFirstInteractiveFrame = -1;
 
     private PopupWindow mPopupWindow;
     private Boolean helpIsVisible = false;
@@ -86,13 +151,27 @@ public class Game extends AppCompatActivity {
     private Boolean alertIsVisible = false;
 
     private int gameType;
-    private int screenHeightOffset = 0;
     private int selectedGridType = 0;
     private Random random = new Random();
+    private long seed;
+    private boolean seedRequested = false;
+    private SwapSolver solver;
+    private int moves = 0;
+    private int par = -1;
+    private SlidingSolver slidingSolver;
+    private ExecutorService solverExecutor =
+            Executors.newSingleThreadExecutor();
+    private Future<?> loadTask;
+    private Future<?> parTask;
+    private Future<?> hintTask;
+    private int solverRound = 0;
+    private GameGrid parPuzzle;
+    private static final long PAR_NODE_BUDGET = 50000000;
+    private static final long HINT_TIME_BUDGET = 100000000;
     static final int REQUEST_TAKE_PHOTO = 1;
+    private static final String TILE_CACHE_DIR = "tiles";
+    private static final String TAG = "Game";
     private String photoPath;
-    static final String[] gridSizes = {"3x2", "3x3", "4x3",
-                                        "4x4", "5x4", "5x5"};
     private static final int arcadeRounds = 3;
     private int state = 0;
 
@@ -114,16 +193,36 @@ public class Game extends AppCompatActivity {
                 new ContinueListener());
         findViewById(R.id.cameraButton).setOnClickListener(
                 new CameraListener());
+        photoHandler = new PhotoHandler(BitmapPool.getInstance(this));
+        ActivityManager activityManager = (ActivityManager)
+                getSystemService(ACTIVITY_SERVICE);
+        photoHandler.setTileConfig(PhotoHandler.chooseTileConfig(
+                activityManager.isLowRamDevice(), Build.VERSION.SDK_INT));
+        tileDiskCache = new TileDiskCache(new File(getCacheDir(),
+                TILE_CACHE_DIR));
+        imagePipeline = new ImagePipeline(photoHandler, tileDiskCache);
+
+        Intent intent = getIntent();
+        gameType = intent.getIntExtra("type", -1);
+        if(savedInstanceState == null && intent.hasExtra("seed")){
+            seed = intent.getLongExtra("seed", 0);
+            seedRequested = true;
+        }
 
         if(savedInstanceState != null){
             photoPath = savedInstanceState.getString("path");
             selectedGridType = savedInstanceState.getInt("gridType");
             state = savedInstanceState.getInt("state");
-            rebuildState((GameGrid) savedInstanceState.getParcelable(
-                    "gameGrid"));
+            seed = savedInstanceState.getLong("seed");
+            moves = savedInstanceState.getInt("moves");
+            par = savedInstanceState.getInt("par");
+            ParcelableGameGrid saved = savedInstanceState.getParcelable(
+                    "gameGrid");
+            rebuildState(saved == null ? null : saved.getGameGrid());
         }else{
             photoHandler.deleteExcessPhotos(getExternalFilesDir(
                     Environment.DIRECTORY_PICTURES));
+            imagePipeline.clearDiskCache();
         }
 
         android.support.v7.app.ActionBar actionBar = getSupportActionBar();
@@ -131,14 +230,14 @@ public class Game extends AppCompatActivity {
             actionBar.setDisplayShowTitleEnabled(false);
         }
 
-        Intent intent = getIntent();
-        gameType = intent.getIntExtra("type", -1);
         TextView t = findViewById(R.id.round_text);
 
         if(gameType == 0){
             t.setText(R.string.free_play_title);
         }else if(gameType == 1 && state != 3){
             t.setText(getString(R.string.round, selectedGridType + 1));
+        }else if(gameType == 2){
+            t.setText(R.string.sliding_title);
         }
     }
 
@@ -151,7 +250,7 @@ public class Game extends AppCompatActivity {
     @Override
     public boolean onCreateOptionsMenu(android.view.Menu menu) {
         MenuInflater inflater = getMenuInflater();
-        if(gameType == 0){
+        if(gameType == 0 || gameType == 2){
             inflater.inflate(R.menu.free_play_menu, menu);
         }else if(gameType == 1){
             inflater.inflate(R.menu.arcade_mode_menu, menu);
@@ -171,6 +270,9 @@ public class Game extends AppCompatActivity {
             case R.id.options:
                 displaySingleSelectionDialog();
                 return true;
+            case R.id.hint:
+                showHint();
+                return true;
             case R.id.help:
                 if(!helpIsVisible){
                     setUpHelpWindow();
@@ -198,6 +300,24 @@ public class Game extends AppCompatActivity {
         }
     }
 
+    /**
+     * Standard Android method. Cancels the tiles being made and the
+     * searches of the sliding solver.
+     */
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if(tileJob != null){
+            tileJob.cancel();
+            tileJob = null;
+        }
+        imagePipeline.shutdown();
+        solverRound++;
+        cancelSolverTasks();
+        solverExecutor.shutdownNow();
+    }
+
     /**
      * Standard Android method.
      * @param savedInstanceState Bundle to save data to.
@@ -207,7 +327,8 @@ public class Game extends AppCompatActivity {
     protected void onSaveInstanceState(Bundle savedInstanceState) {
         super.onSaveInstanceState(savedInstanceState);
         if(gameGrid != null){
-            savedInstanceState.putParcelable("gameGrid", gameGrid);
+            savedInstanceState.putParcelable("gameGrid",
+                    new ParcelableGameGrid(gameGrid));
         }
 
         switch (state){
@@ -229,6 +350,9 @@ public class Game extends AppCompatActivity {
 
         savedInstanceState.putInt("gridType", selectedGridType);
         savedInstanceState.putString("path", photoPath);
+        savedInstanceState.putLong("seed", seed);
+        savedInstanceState.putInt("moves", moves);
+        savedInstanceState.putInt("par", par);
     }
 
     /**
@@ -243,25 +367,23 @@ public class Game extends AppCompatActivity {
                                     Intent data){
         if (requestCode == REQUEST_TAKE_PHOTO && resultCode == RESULT_OK) {
             state = 1;
-            Bitmap b = photoHandler.produceBitmapFromPath(photoPath);
-            int y = Character.getNumericValue(gridSizes[
-                    selectedGridType].charAt(0));
-            int x = Character.getNumericValue(gridSizes[
-                    selectedGridType].charAt(2));
+            GridSize size = GridSize.parse(GridSize.PRESETS[selectedGridType]);
 
-            prepareNewButtonGrid(y, x,b,false);
+            prepareNewButtonGrid(size.getRows(), size.getColumns(), false);
             graphicsGrid.getCameraButton().setVisibility(View.INVISIBLE);
 
         } else if(requestCode == REQUEST_TAKE_PHOTO
                 && resultCode == RESULT_CANCELED){
             photoHandler.deleteExcessPhotos(
                     getExternalFilesDir(Environment.DIRECTORY_PICTURES));
+            imagePipeline.clearDiskCache();
         }
     }
 
     /**
      * Rebuilds the state of the game.
-     * @param gameGrid Gamegrid from previous life cycle.
+     * @param gameGrid Gamegrid from previous life cycle, null if it could
+     *                 not be restored.
      */
 
     private void rebuildState(GameGrid gameGrid){
@@ -270,33 +392,38 @@ public class Game extends AppCompatActivity {
             //Base state, already restored.
             case 0:
                 break;
-            //Restore puzzle
+            //Restore puzzle, the images are placed straight from gameGrid.
+            //A grid that could not be restored is replaced by a new
+            //puzzle of the same photo.
             case 1:
                 findViewById(R.id.cameraButton).setVisibility(View.INVISIBLE);
+                if(gameGrid == null){
+                    Log.w(TAG, "Saved grid rejected, starting a new puzzle");
+                    GridSize size = GridSize.parse(
+                            GridSize.PRESETS[selectedGridType]);
+                    prepareNewButtonGrid(size.getRows(), size.getColumns(),
+                            false);
+                    break;
+                }
                 this.gameGrid = gameGrid;
                 gameGrid.setMarkedTile(null);
+                solver = new SwapSolver(gameGrid);
                 int rows = gameGrid.getRows();
                 int columns = gameGrid.getColumns();
-                LinearLayout topRow = findViewById(R.id.toprow);
                 graphicsGrid = new GraphicsGrid(rows, columns, this);
 
                 setGraphicsGridComponents();
 
-                Bitmap[][] pieces = photoHandler.splitAndResizeBitmap(
-                        photoHandler.produceBitmapFromPath(photoPath),
-                        gameGrid);
-                graphicsGrid.setupNewImagesForButtonGrid(topRow,
-                        pieces, gameGrid, false);
-                graphicsGrid.setOnClickListenersOnWholeButtonGrid(
-                        new TileListener());
-                unsolvePuzzle();
+                if(gameType == 2){
+                    prepareSlidingSolver();
+                }
+                loadTiles(false);
                 break;
             //Puzzle is solved.
             case 2:
                 findViewById(R.id.continueButton).setVisibility(View.VISIBLE);
                 findViewById(R.id.cameraButton).setVisibility(View.INVISIBLE);
-                Bitmap b = photoHandler.produceBitmapFromPath(photoPath);
-                prepareNewButtonGrid(2, 2, b,true);
+                prepareNewButtonGrid(2, 2, true);
                 break;
             //Arcade Mode has been won.
             case 3:
@@ -323,102 +450,301 @@ public class Game extends AppCompatActivity {
     }
 
     /**
-     * Goes through the grid and collects all the positions without
-     * the correct image.
-     * @return A list of wrong positions.
+     * Prepares a new grid, both locical and graphical.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param solved Says if the grid should be solved or scrambled.
+     *               A scrambled grid is scrambled before any image is
+     *               placed, and shown being scrambled once they are.
      */
 
-    public ArrayList<Position> collectWrongPositions(){
-        ArrayList <Position> wrongPositions = new ArrayList<>();
-        for(int i = 0; i<gameGrid.getRows(); i++){
-            for(int j = 0; j<gameGrid.getColumns(); j++){
-                if(!gameGrid.getTiles()[i][j].isImageCorrect()){
-                    wrongPositions.add(new Position(i, j));
-                }
+    public void prepareNewButtonGrid(int rows, int columns,
+                                     boolean solved){
+        graphicsGrid = new GraphicsGrid(rows, columns, this);
+        Point size = getGridArea();
+        setGraphicsGridComponents();
+
+        gameGrid = new GameGrid(size.x/columns, size.y/rows, rows, columns);
+        showScramble = !solved;
+        if(!solved){
+            if(!seedRequested){
+                seed = random.nextLong();
+            }
+            seedRequested = false;
+            moves = 0;
+            if(gameType == 2){
+                new Scrambler(seed, Scrambler.ALL_TILES).scrambleSliding(
+                        gameGrid);
+                solver = new SwapSolver(gameGrid);
+                par = -1;
+                prepareSlidingSolver();
+            }else{
+                new Scrambler(seed, Scrambler.ALL_TILES).scramble(gameGrid);
+                solver = new SwapSolver(gameGrid);
+                par = solver.getMinimumSwaps();
             }
         }
-        return wrongPositions;
+
+        loadTiles(solved);
+
     }
 
     /**
-     * Restores the puzzle to the previous unsolved state.
+     * Places the tiles of gameGrid, cancelling any tiles still being
+     * made. Cached tiles are placed at once, otherwise they are made from
+     * the photo and placed by a TileLoadListener, which shows low
+     * resolution placeholders until they are done. A puzzle also gets the
+     * tiles of its solved preview made from its own pixels.
+     * @param solved Says if the grid is solved.
      */
 
-    public void unsolvePuzzle(){
-        ArrayList <Position> wrongPositions = collectWrongPositions();
-        GameGrid tempGrid = new GameGrid(0, 0, gameGrid.getRows(),
-                gameGrid.getColumns());
-        GameTile[][] tempTiles = tempGrid.getTiles();
-        GameTile[][] oldTiles = gameGrid.getTiles();
-        Boolean pos1Match;
-        Boolean pos2Match;
+    private void loadTiles(boolean solved){
+        if(tileJob != null){
+            tileJob.cancel();
+            tileJob = null;
+        }
+        tilesPlaced = false;
+        loadStartTime = System.nanoTime();
+        timeToFirstInteractiveFrame = -1;
+        TileCache tileCache = TileCache.getInstance(this);
+        TileAtlas cached = tileCache.get(photoPath, gameGrid);
+        if(cached != null){
+            placeTiles(cached, solved);
+            return;
+        }
 
-        while(!wrongPositions.isEmpty()){
-            Position pos1 = wrongPositions.get(0);
-            int y1 = pos1.getY();
-            int x1 = pos1.getX();
-            for(int i = 1; i<wrongPositions.size(); i++){
-                Position pos2 = wrongPositions.get(i);
-                int y2 = pos2.getY();
-                int x2 = pos2.getX();
-                graphicsGrid.swapButtonBitmaps(pos1, pos2);
-                tempGrid.swapTileImageSourcePositions(pos1, pos2);
+        GameGrid previewGrid = null;
+        if(!solved){
+            Point size = getGridArea();
+            previewGrid = new GameGrid(size.x/2, size.y/2, 2, 2);
+            if(tileCache.get(photoPath, previewGrid) != null){
+                previewGrid = null;
+            }
+        }
+        tileJob = imagePipeline.load(photoPath, gameGrid, previewGrid,
+                new TileLoadListener(photoPath, previewGrid, solved));
+    }
 
-                pos1Match = tempTiles[y1][x1].equals(oldTiles[y1][x1]);
-                pos2Match = tempTiles[y2][x2].equals(oldTiles[y2][x2]);
+    /**
+     * Places tiles or their placeholders in the grid, lets the player use
+     * them and measures the time to the first frame drawn with them. A
+     * grid that was just scrambled is shown being scrambled.
+     * @param tiles The atlas of the tiles, it may be shared with the
+     *              TileCache.
+     * @param solved Says if the grid is solved.
+     */
 
-                if(!pos1Match && !pos2Match){
-                    graphicsGrid.swapButtonBitmaps(pos1, pos2);
-                    tempGrid.swapTileImageSourcePositions(pos1, pos2);
-                }else if(pos1Match && pos2Match){
-                    wrongPositions.remove(pos1);
-                    wrongPositions.remove(pos2);
-                    break;
-                }else if(pos1Match){
-                    wrongPositions.remove(pos1);
-                    break;
-                }else {
-                    wrongPositions.remove(pos2);
-                    break;
-                }
+    private void placeTiles(TileAtlas tiles, boolean solved){
+        LinearLayout topRow = findViewById(R.id.toprow);
+        graphicsGrid.setupNewImagesForGrid(topRow, tiles, gameGrid,
+                solved);
+        if(!solved && gameType == 2){
+            graphicsGrid.hideImageSource(gameGrid.getRows()
+                    * gameGrid.getColumns() - 1);
+        }
+        if(showScramble){
+            graphicsGrid.animateScramble(gameGrid);
+            showScramble = false;
+        }
+        if(!solved){
+            Position marked = gameGrid.getMarkedTile();
+            if(marked != null){
+                graphicsGrid.markTile(marked, true, gameGrid);
             }
+            graphicsGrid.setOnTileClickListener(new TileListener());
         }
+        tilesPlaced = true;
+        measureFirstInteractiveFrame();
     }
 
     /**
-     * Prepares a new grid, both locical and graphical.
-     * @param rows The amount of rows in the grid.
-     * @param columns The amount of columns in the grid.
-     * @param b The bitmap to make the tiles out of.
-     * @param solved Says if the grid should be solved or scrambled.
+     * Replaces the placeholders in the grid with the tiles. Swaps, the
+     * hidden blank and the marked tile made on the placeholders are kept.
+     * @param tiles The atlas of the tiles, it may be shared with the
+     *              TileCache.
      */
 
-    public void prepareNewButtonGrid(int rows, int columns, Bitmap b,
-                                     boolean solved){
-        graphicsGrid = new GraphicsGrid(rows, columns, this);
-        LinearLayout topRow = findViewById(R.id.toprow);
+    private void replacePlaceholders(TileAtlas tiles){
+        graphicsGrid.replaceAtlas(tiles);
+    }
+
+    /**
+     * Logs and keeps the time from the start of loading to the end of
+     * the next frame, the first one drawn with the grid just placed. A
+     * frame callback runs before the frame is drawn, so the time is taken
+     * by a message posted from it, which runs after the drawing.
+     */
+
+    private void measureFirstInteractiveFrame(){
+        final long start = loadStartTime;
+        Choreographer.getInstance().postFrameCallback(
+                new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                getWindow().getDecorView().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(start != loadStartTime
+                                || timeToFirstInteractiveFrame >= 0){
+                            return;
+                        }
+                        timeToFirstInteractiveFrame =
+                                (System.nanoTime() - start) / 1000000;
+                        Log.i(TAG, "First interactive frame of "
+                                + gameGrid.getColumns() + "x"
+                                + gameGrid.getRows() + " after "
+                                + timeToFirstInteractiveFrame + " ms");
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Getter.
+     * @return The milliseconds from the start of loading the tiles to
+     * the first frame drawn with a playable grid, -1 while unknown.
+     */
+
+    public long getTimeToFirstInteractiveFrame() {
+        return timeToFirstInteractiveFrame;
+    }
+
+    /**
+     * Logs the times from the taps on the puzzle that changed it to the
+     * end of the drawing that showed the change.
+     */
+
+    private void logInputLatency(){
+        FrameStats latency = graphicsGrid.getPuzzleView().getInputLatency();
+        if(latency.getCount() > 0){
+            Log.i(TAG, "Tap to feedback of " + latency.getCount()
+                    + " taps: p50 " + latency.getPercentile(50) / 1000000
+                    + " ms, p99 " + latency.getPercentile(99) / 1000000
+                    + " ms");
+        }
+    }
+
+    /**
+     * Calculates the area of the screen the grid is drawn in. It is only
+     * used to size the tiles, taps are found within the PuzzleView.
+     * @return The width and height of the grid area.
+     */
+
+    private Point getGridArea(){
         Display display = getWindowManager().getDefaultDisplay();
         Point size = new Point();
-        setGraphicsGridComponents();
 
         display.getSize(size);
-        int width = size.x;
-        screenHeightOffset = getActionBarHeight(this);
-        screenHeightOffset = screenHeightOffset + getStatusBarHeight();
-        int height = size.y - screenHeightOffset;
+        size.y = size.y - getActionBarHeight(this) - getStatusBarHeight();
+        return size;
+    }
+
+    /**
+     * Prepares the solver of Sliding Puzzle on solverExecutor, and
+     * publishes it as soon as it is ready. Building the pattern
+     * databases of a grid size takes seconds the first time, after that
+     * they are read from the cache directory. Grids larger than
+     * SlidingSolver.MAX_TILES get no solver. The searches still running
+     * for an earlier puzzle are cancelled. If the par of the puzzle is
+     * not known, it is searched for once the solver is published.
+     */
+
+    private void prepareSlidingSolver(){
+        final int rows = gameGrid.getRows();
+        final int columns = gameGrid.getColumns();
+        final SlidingSolver current = slidingSolver;
+        final int round = ++solverRound;
+        cancelSolverTasks();
+        slidingSolver = null;
+        parPuzzle = null;
+        if(rows * columns > SlidingSolver.MAX_TILES){
+            return;
+        }
+        if(par < 0){
+            parPuzzle = new GameGrid(gameGrid);
+        }
+        final File cacheDir = getCacheDir();
 
-        gameGrid = new GameGrid(width/columns, height/rows, rows, columns);
+        loadTask = solverExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                final SlidingSolver s = current != null
+                        && current.getRows() == rows
+                        && current.getColumns() == columns
+                        ? current
+                        : SlidingSolver.loadOrBuild(rows, columns, cacheDir);
+
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(round != solverRound || state != 1){
+                            return;
+                        }
+                        loadTask = null;
+                        slidingSolver = s;
+                        startParSearch();
+                    }
+                });
+            }
+        });
+    }
 
-        Bitmap[][] pieces = photoHandler.splitAndResizeBitmap(b, gameGrid);
+    /**
+     * Searches for the par of parPuzzle on solverExecutor, if it is
+     * still needed. A hint cancels the search, and starts it again
+     * from the beginning once the hint is found.
+     */
 
-        graphicsGrid.setupNewImagesForButtonGrid(topRow, pieces,
-                gameGrid, solved);
-        if(!solved){
-            graphicsGrid.setOnClickListenersOnWholeButtonGrid(
-                    new TileListener());
-            scrambleTiles(rows, columns);
+    private void startParSearch(){
+        if(parPuzzle == null || slidingSolver == null || state != 1){
+            return;
         }
+        final SlidingSolver s = slidingSolver;
+        final GameGrid puzzle = parPuzzle;
+        final int round = solverRound;
 
+        parTask = solverExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                int solution[] = s.solve(puzzle, PAR_NODE_BUDGET);
+                if(Thread.currentThread().isInterrupted()){
+                    return;
+                }
+                final int found = solution == null ? -1 : solution.length;
+
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(round != solverRound || parPuzzle != puzzle){
+                            return;
+                        }
+                        parTask = null;
+                        parPuzzle = null;
+                        par = found;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cancels the tasks given to solverExecutor.
+     */
+
+    private void cancelSolverTasks(){
+        if(loadTask != null){
+            loadTask.cancel(true);
+            loadTask = null;
+        }
+        if(parTask != null){
+            parTask.cancel(true);
+            parTask = null;
+        }
+        if(hintTask != null){
+            hintTask.cancel(true);
+            hintTask = null;
+        }
     }
 
     /**
@@ -472,9 +798,11 @@ public class Game extends AppCompatActivity {
         @Override
         public void onClick(View view) {
             clearGrid();
+            releasePhotoTiles();
             state = 0;
             photoHandler.deleteExcessPhotos(
                     getExternalFilesDir(Environment.DIRECTORY_PICTURES));
+            imagePipeline.clearDiskCache();
             graphicsGrid.getContinueButton().setVisibility(View.INVISIBLE);
             graphicsGrid.getCameraButton().setVisibility(View.VISIBLE);
 
@@ -491,76 +819,249 @@ public class Game extends AppCompatActivity {
     }
 
     /**
-     * OnClickListener for the tiles. Allows them to be selected and swapped.
-     * Also checks if the puzzle is solved.
+     * Places the placeholders of the tiles in the grid so play can
+     * start, then caches the tiles of the photo and puts them in place of
+     * the placeholders when they are done. If the photo could not be
+     * loaded the game goes back to taking photos.
+     * <p>
+     * placeholdersPlaced - Says if the grid shows placeholders.
+     *
      */
 
-    class TileListener implements View.OnClickListener{
+    class TileLoadListener implements ImagePipeline.ProgressiveListener{
+
+        private String path;
+        private GameGrid previewGrid;
+        private boolean solved;
+        private boolean placeholdersPlaced = false;
+
+        /**
+         * Standard constructor.
+         * @param path The path to the photo.
+         * @param previewGrid The grid of the solved preview, null if its
+         *                    tiles are not made.
+         * @param solved Says if the grid is solved.
+         */
+
+        TileLoadListener(String path, GameGrid previewGrid,
+                         boolean solved){
+            this.path = path;
+            this.previewGrid = previewGrid;
+            this.solved = solved;
+        }
 
         @Override
-        public void onClick(View view) {
-            int[] pixelPosition = new int[2];
-            view.getLocationOnScreen(pixelPosition);
-            pixelPosition[1] = pixelPosition[1] - screenHeightOffset;
-            Position p = gameGrid.calculateTilePosition(pixelPosition[1],
-                    pixelPosition[0]);
-
-            if(gameGrid.getMarkedTile() == null){
-                graphicsGrid.markTile((ImageButton) view, true, gameGrid);
+        public void onPlaceholdersReady(GameGrid loaded,
+                                        TileAtlas placeholders) {
+            placeTiles(placeholders, solved);
+            placeholdersPlaced = true;
+        }
+
+        @Override
+        public void onTilesReady(GameGrid loaded, TileAtlas tiles,
+                                 TileAtlas preview) {
+            tileJob = null;
+            if(tiles == null){
+                if(placeholdersPlaced){
+                    clearGrid();
+                    tilesPlaced = false;
+                }
+                Toast.makeText(getApplicationContext(),
+                        "Error: Failed to load photo",
+                        Toast.LENGTH_SHORT).show();
+                if(!solved){
+                    state = 0;
+                    graphicsGrid.getCameraButton().setVisibility(
+                            View.VISIBLE);
+                }
+                return;
+            }
+            TileCache tileCache = TileCache.getInstance(Game.this);
+            tileCache.put(path, loaded, tiles);
+            if(preview != null){
+                tileCache.put(path, previewGrid, preview);
+            }
+            if(placeholdersPlaced){
+                replacePlaceholders(tiles);
+            }else{
+                placeTiles(tiles, solved);
+            }
+        }
+    }
+
+    /**
+     * Listener for taps on the tiles. Allows them to be selected and
+     * swapped, or slid into the blank in Sliding Puzzle. Also checks if
+     * the puzzle is solved. Allocates nothing until the
+     * puzzle is solved.
+     */
+
+    class TileListener implements PuzzleView.OnTileClickListener{
+
+        @Override
+        public void onTileClick(int row, int column) {
+            Position p = gameGrid.getPosition(gameGrid.indexOf(row, column));
+
+            if(gameType == 2){
+                if(SlidingPuzzle.isMoveValid(gameGrid,
+                        gameGrid.indexOf(p.getY(), p.getX()))){
+                    swapTiles(gameGrid.getPosition(
+                            SlidingPuzzle.getBlankTile(gameGrid)), p);
+                }
+            }else if(gameGrid.getMarkedTile() == null){
+                graphicsGrid.markTile(p, true, gameGrid);
                 gameGrid.setMarkedTile(p);
             }else if(gameGrid.getMarkedTile().equals(p)){
-                graphicsGrid.markTile((ImageButton) view, false, gameGrid);
+                graphicsGrid.markTile(p, false, gameGrid);
                 gameGrid.setMarkedTile(null);
             } else {
-                graphicsGrid.swapButtonBitmaps(gameGrid.getMarkedTile(), p);
-                graphicsGrid.markTile(graphicsGrid.getImageButtonAtPosition(p),
-                        false, gameGrid);
-                gameGrid.swapTileImageSourcePositions(gameGrid.getMarkedTile(), p);
-                gameGrid.setMarkedTile(null);
+                swapTiles(gameGrid.getMarkedTile(), p);
+            }
+        }
+    }
 
-                if(gameGrid.isPuzzleSolved()){
-                    Toast.makeText(getApplicationContext(),
-                            "Puzzle Solved!",Toast.LENGTH_SHORT).show();
-                    clearGrid();
-                    graphicsGrid.getContinueButton().setVisibility(View.VISIBLE);
-                    Bitmap b = photoHandler.produceBitmapFromPath(photoPath);
-                    prepareNewButtonGrid(2, 2, b,true);
-                    state = 2;
-                }
+    /**
+     * Swaps two tiles, both graphically and logically, and counts the
+     * move. Also checks if the puzzle is solved.
+     * @param p1 The marked tile, the blank in Sliding Puzzle, or any tile
+     *           if none is marked.
+     * @param p2 The tile to swap with.
+     */
 
-            }
+    private void swapTiles(Position p1, Position p2){
+        int index1 = gameGrid.indexOf(p1.getY(), p1.getX());
+        int index2 = gameGrid.indexOf(p2.getY(), p2.getX());
+
+        graphicsGrid.animateSwap(p1, p2);
+        graphicsGrid.markTile(p2, false, gameGrid);
+        gameGrid.swapTiles(index1, index2);
+        solver.onSwap(index1, index2);
+        gameGrid.setMarkedTile(null);
+        moves++;
+
+        if(gameGrid.isPuzzleSolved()){
+            String message = par < 0
+                    ? getString(R.string.puzzle_solved_no_par, moves)
+                    : getString(R.string.puzzle_solved, moves, par);
+            Toast.makeText(getApplicationContext(), message,
+                    Toast.LENGTH_SHORT).show();
+            logInputLatency();
+            parPuzzle = null;
+            cancelSolverTasks();
+            clearGrid();
+            graphicsGrid.getContinueButton().setVisibility(View.VISIBLE);
+            prepareNewButtonGrid(2, 2, true);
+            state = 2;
         }
     }
 
     /**
-     * Clears out the visible grid.
+     * Makes one move of an optimal solution for the player. A marked
+     * tile is unmarked first.
+     */
+
+    private void showHint(){
+        if(state != 1 || !tilesPlaced){
+            return;
+        }
+        Position marked = gameGrid.getMarkedTile();
+        if(marked != null){
+            graphicsGrid.markTile(marked, false, gameGrid);
+            gameGrid.setMarkedTile(null);
+        }
+
+        if(gameType == 2){
+            showSlidingHint();
+            return;
+        }
+        int tile = solver.getHintTile();
+        if(tile != -1){
+            swapTiles(gameGrid.getPosition(tile), gameGrid.getPosition(
+                    gameGrid.getTileOfImageSource(tile)));
+        }
+    }
+
+    /**
+     * Slides one tile of an optimal solution for the player, or of the
+     * greedy move if no solution is found within HINT_TIME_BUDGET. The
+     * search runs on solverExecutor before the par search, which is
+     * cancelled and started again after it. The tile is slid on the main
+     * thread, unless a move was made while searching. The player is told
+     * when the solver is not ready or a hint is already being searched.
+     */
+
+    private void showSlidingHint(){
+        if(slidingSolver == null){
+            Toast.makeText(getApplicationContext(), R.string.hint_not_ready,
+                    Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if(hintTask != null){
+            Toast.makeText(getApplicationContext(), R.string.hint_searching,
+                    Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if(parTask != null){
+            parTask.cancel(true);
+            parTask = null;
+        }
+        final SlidingSolver s = slidingSolver;
+        final GameGrid puzzle = new GameGrid(gameGrid);
+        final int round = solverRound;
+        final int puzzleMoves = moves;
+
+        hintTask = solverExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                int solution[] = s.solve(puzzle, Long.MAX_VALUE,
+                        HINT_TIME_BUDGET);
+                final int tile = solution != null && solution.length > 0
+                        ? solution[0] : s.getGreedyMove(puzzle);
+
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(round != solverRound || state != 1){
+                            return;
+                        }
+                        hintTask = null;
+                        if(tile != -1 && moves == puzzleMoves){
+                            swapTiles(gameGrid.getPosition(
+                                    SlidingPuzzle.getBlankTile(gameGrid)),
+                                    gameGrid.getPosition(tile));
+                        }
+                        startParSearch();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Clears out the visible grid and cancels the tiles being made.
      */
 
     public void clearGrid(){
+        if(tileJob != null){
+            tileJob.cancel();
+            tileJob = null;
+        }
         LinearLayout topRow = findViewById(R.id.toprow);
         topRow.removeAllViews();
     }
 
     /**
-     * Scrambles the tiles in a puzzle rows*columns times.
-     * @param rows The amount of rows in the puzzle.
-     * @param columns The amount of columns in the puzzle.
+     * Moves the cached tiles of the photo to the BitmapPool, so the next
+     * photo can reuse them. Only call it when no tiles are shown.
      */
 
-    public void scrambleTiles(int rows, int columns){
-        Position pos1;
-        Position pos2;
-        int i = 0;
-
-        while(i<(rows*columns)){
-            pos1 = gameGrid.getRandomPosition(random);
-            pos2 = gameGrid.getRandomPosition(random);
-
-            if(!pos1.equals(pos2)){
-                graphicsGrid.swapButtonBitmaps(pos1, pos2);
-                gameGrid.swapTileImageSourcePositions(pos1, pos2);
-                i++;
-            }
+    private void releasePhotoTiles(){
+        if(photoPath == null){
+            return;
+        }
+        BitmapPool bitmapPool = photoHandler.getBitmapPool();
+        for(TileAtlas atlas : TileCache.getInstance(this).remove(photoPath)){
+            bitmapPool.put(atlas.getBitmap());
         }
     }
 
@@ -603,6 +1104,8 @@ public class Game extends AppCompatActivity {
         View helpView;
         if(gameType == 0){
             helpView = inflater.inflate(R.layout.help_popup_free_play,null);
+        }else if(gameType == 2){
+            helpView = inflater.inflate(R.layout.help_popup_sliding,null);
         }else {
             helpView = inflater.inflate(R.layout.help_popup_arcade_mode,null);
         }
@@ -632,7 +1135,7 @@ public class Game extends AppCompatActivity {
     private void displaySingleSelectionDialog() {
         AlertDialog.Builder dialogBuilder = new AlertDialog.Builder(this);
         dialogBuilder.setTitle("Grid");
-        dialogBuilder.setSingleChoiceItems(gridSizes, selectedGridType, new DialogInterface.OnClickListener(){
+        dialogBuilder.setSingleChoiceItems(GridSize.PRESETS, selectedGridType, new DialogInterface.OnClickListener(){
             @Override
             public void onClick(DialogInterface dialogInterface, int i) {
                 selectedGridType = i;
@@ -643,6 +1146,7 @@ public class Game extends AppCompatActivity {
             @Override
             public void onClick(DialogInterface dialogInterface, int i) {
                 clearGrid();
+                releasePhotoTiles();
                 findViewById(R.id.continueButton).setVisibility(View.INVISIBLE);
                 findViewById(R.id.cameraButton).setVisibility(View.VISIBLE);
                 state = 0;
@@ -1,12 +1,6 @@
 package se.umu.cs.dv16vgn.pictopuzzle;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.drawable.BitmapDrawable;
-import android.view.View;
 import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
@@ -14,9 +8,16 @@ import android.widget.TextView;
 
 /**
  * <h1>GraphicsGrid</h1>
- * Governs graphical elements.
+ * Governs graphical elements. The tiles are drawn by a single
+ * PuzzleView, which also finds the tile that is tapped. The images come
+ * from one TileAtlas and every tile only refers to a cell of it, so
+ * moving tiles never touches a bitmap. Tile markers are drawn over the
+ * tile images, so the atlas is never drawn into and may be immutable,
+ * shared or a hardware bitmap. Tiles are drawn at the tile size of the
+ * grid, so a smaller placeholder atlas can be shown until the tiles are
+ * done.
  * <p>
- * buttonGrid - The grid of image buttons.
+ * puzzleView - The view that draws the grid.
  * <p>
  * cameraButton - The camera button.
  * <p>
@@ -27,21 +28,17 @@ import android.widget.TextView;
  * rows - The amount of rows in the grid.
  * <p>
  * columns - The amount of columns in the grid.
- * <p>
- * linearLayoutList - A list of LinearLayouts used to build up the
- * grid graphically.
  *
  */
 
 public class GraphicsGrid {
 
-    private ImageButton [][] buttonGrid;
+    private PuzzleView puzzleView;
     private ImageButton cameraButton;
     private Button continueButton;
     private TextView roundText;
     private int rows;
     private int columns;
-    private LinearLayout linearLayoutList[];
 
     /**
      * Standard constructor.
@@ -51,121 +48,163 @@ public class GraphicsGrid {
      */
 
     public GraphicsGrid(int rows, int columns, Context context){
-
-        this.buttonGrid = new ImageButton[rows][columns];
+        this.puzzleView = new PuzzleView(context);
         this.rows = rows;
         this.columns = columns;
-        this.linearLayoutList = new LinearLayout[rows];
-
-        for(int i = 0; i<rows; i++){
-            for(int j = 0; j<columns; j++){
-                buttonGrid[i][j] = new ImageButton(context);
-                buttonGrid[i][j].setBackgroundColor(Color.TRANSPARENT);
-                buttonGrid[i][j].setPadding(0, 0, 0, 0);
-            }
-        }
-        for (int i = 0; i<rows; i++){
-            linearLayoutList[i] = new LinearLayout(context);
-            linearLayoutList[i].setLayoutParams(
-                    new LinearLayout.LayoutParams(
-                            LinearLayout.LayoutParams.MATCH_PARENT
-                            ,LinearLayout.LayoutParams.MATCH_PARENT));
-            linearLayoutList[i].setOrientation(LinearLayout.HORIZONTAL);
-
-            LinearLayout.LayoutParams params =
-                    (LinearLayout.LayoutParams)
-                            linearLayoutList[i].getLayoutParams();
-            linearLayoutList[i].setLayoutParams(params);
-        }
     }
 
     /**
-     * Prepares the button grid with new images.
+     * Prepares the grid with new images. Every tile gets the atlas cell
+     * of the source it currently shows in gameGrid, so a scrambled grid
+     * is restored in a single pass.
      * @param topRow The LinearLayout that holds the grid.
-     * @param bmMatrix A matrix of bitmaps with the images the grid needs.
-     * @param gameGrid Contains information on tile sizes.
+     * @param atlas The atlas with the images the grid needs.
+     * @param gameGrid Contains information on tile sizes and image
+     *                 sources.
      * @param solved Says if the fresh grid should be drawn with tile
      *              markers or not.
      */
 
-    public void setupNewImagesForButtonGrid(LinearLayout topRow,
-                                            Bitmap[][] bmMatrix,
-                                            GameGrid gameGrid,
-                                            boolean solved){
-        for(int i = 0; i<rows; i++){
-            for(int j = 0; j<columns; j++){
-                buttonGrid[i][j].setImageBitmap(bmMatrix[j][i]);
+    public void setupNewImagesForGrid(LinearLayout topRow,
+                                      TileAtlas atlas,
+                                      GameGrid gameGrid, boolean solved){
+        puzzleView.setGrid(rows, columns, gameGrid.getTileWidth(),
+                gameGrid.getTileHeight());
+        puzzleView.setMarkers(!solved, getMarkerWidth(gameGrid));
+        puzzleView.setAtlas(atlas);
+        for(int i = 0; i<rows * columns; i++){
+            puzzleView.setCell(i, gameGrid.getImageSource(i));
+        }
+        topRow.addView(puzzleView);
+    }
+
+    /**
+     * Replaces the atlas of a grid that is already set up, like when the
+     * tiles take over from their placeholders. The atlas cells of the
+     * tiles are kept, so tiles swapped or hidden in the meantime keep
+     * their places, and so are the markers.
+     * @param atlas The atlas with the same cells as the one shown.
+     */
+
+    public void replaceAtlas(TileAtlas atlas){
+        puzzleView.setAtlas(atlas);
+    }
+
+    /**
+     * Hides the image of a source, like the blank tile of a Sliding
+     * Puzzle. The tile it is on is then drawn empty.
+     * @param source The image source to hide.
+     */
 
-                if(!solved){
-                    markTile(buttonGrid[i][j], false, gameGrid);
-                }
-                linearLayoutList[i].addView(buttonGrid[i][j]);
+    public void hideImageSource(int source){
+        for(int i = 0; i<rows * columns; i++){
+            if(puzzleView.getCell(i) == source){
+                puzzleView.setCell(i, -1);
             }
         }
-        for(int i = 0; i<rows; i++){
-            topRow.addView(linearLayoutList[i]);
-        }
     }
 
     /**
-     * Sets OnClickListeners on all image buttons in the grid.
+     * Sets the listener of taps on the tiles of the grid.
      * @param listener The listener to set.
      */
 
-    public void setOnClickListenersOnWholeButtonGrid(View.OnClickListener
-                                                             listener){
-        for(int i = 0; i<rows; i++){
-            for(int j = 0; j<columns; j++){
-                buttonGrid[i][j].setOnClickListener(listener);
-            }
-        }
+    public void setOnTileClickListener(PuzzleView.OnTileClickListener
+                                               listener){
+        puzzleView.setOnTileClickListener(listener);
     }
 
     /**
-     * Marks an image button so it looks like a tile.
-     * @param button The button to mark.
+     * Marks a tile as selected, or unmarks it so it looks like the other
+     * tiles. Only the tile changes on screen.
+     * @param p The Position of the tile.
      * @param markAsSelected Decides what colour to use.
-     * @param gameGrid Contains information on tile sizes.
+     * @param gameGrid Contains information on the grid.
      */
 
-    public void markTile(ImageButton button, Boolean markAsSelected,
+    public void markTile(Position p, Boolean markAsSelected,
                          GameGrid gameGrid){
-
-        Bitmap temp1 = ((BitmapDrawable) button.getDrawable()).getBitmap();
-        Canvas canvas = new Canvas(temp1);
-        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
-
+        int index = gameGrid.indexOf(p.getY(), p.getX());
         if(markAsSelected){
-            paint.setColor(Color.GREEN);
-        }else{
-            paint.setColor(Color.BLACK);
+            puzzleView.setMarkedTile(index);
+        }else if(puzzleView.getMarkedTile() == index){
+            puzzleView.setMarkedTile(-1);
         }
+    }
 
-        paint.setStrokeWidth(10);
-        canvas.drawLine(0, 0, 0, gameGrid.getTileHeight(), paint);
-        canvas.drawLine(0, 0, gameGrid.getTileWidth(), 0, paint);
-        canvas.drawLine(gameGrid.getTileWidth(), 0, gameGrid.getTileWidth(),
-                gameGrid.getTileHeight(), paint);
-        canvas.drawLine(0, gameGrid.getTileHeight(), gameGrid.getTileWidth(),
-                gameGrid.getTileHeight(), paint);
+    /**
+     * Calculates the width of tile markers. Small tiles of large grids
+     * get thinner markers so the image stays visible.
+     * @param gameGrid Contains information on tile sizes.
+     * @return The marker width in pixels, between 1 and 10.
+     */
 
-        button.setImageBitmap(temp1);
+    private int getMarkerWidth(GameGrid gameGrid){
+        int shortestSide = Math.min(gameGrid.getTileWidth(),
+                gameGrid.getTileHeight());
+        return Math.max(1, Math.min(10, shortestSide / 8));
     }
 
     /**
-     * Swaps the images on two image buttons.
-     * @param button1 A button to swap with.
-     * @param button2 A button to swap with.
+     * Swaps the images on two tiles. Only the atlas cells of the tiles
+     * are swapped and only the two tiles are drawn again.
+     * @param tile1 A tile to swap with.
+     * @param tile2 A tile to swap with.
      */
 
-    public void swapButtonBitmaps(Position button1, Position button2){
-        Bitmap temp1 = ((BitmapDrawable) buttonGrid[button1.getY()]
-                [button1.getX()].getDrawable()).getBitmap();
-        Bitmap temp2 = ((BitmapDrawable) buttonGrid[button2.getY()]
-                [button2.getX()].getDrawable()).getBitmap();
+    public void swapTileImages(Position tile1, Position tile2){
+        puzzleView.swapCells(tile1.getY() * columns + tile1.getX(),
+                tile2.getY() * columns + tile2.getX());
+    }
 
-        buttonGrid[button1.getY()][button1.getX()].setImageBitmap(temp2);
-        buttonGrid[button2.getY()][button2.getX()].setImageBitmap(temp1);
+    /**
+     * Swaps the images on two tiles and lets them slide to their new
+     * tiles.
+     * @param tile1 A tile to swap with.
+     * @param tile2 A tile to swap with.
+     */
+
+    public void animateSwap(Position tile1, Position tile2){
+        puzzleView.animateSwap(tile1.getY() * columns + tile1.getX(),
+                tile2.getY() * columns + tile2.getX());
+    }
+
+    /**
+     * Shows a grid that was just set up scrambled being scrambled. Every
+     * misplaced image slides to its tile from its place in the solved
+     * grid, starting one after another in solved order.
+     * @param gameGrid Contains information on image sources.
+     */
+
+    public void animateScramble(GameGrid gameGrid){
+        int tiles = rows * columns;
+        for(int i = 0; i<tiles; i++){
+            int source = gameGrid.getImageSource(i);
+            if(source != i){
+                puzzleView.animateFrom(i, source,
+                        PuzzleView.SCRAMBLE_SPREAD * source / tiles,
+                        PuzzleView.SCRAMBLE_DURATION);
+            }
+        }
+    }
+
+    /**
+     * Getter for the image source shown on a specific tile in the grid.
+     * @param p The Position of the tile.
+     * @return The atlas cell shown on the tile, -1 if it is hidden.
+     */
+
+    public int getImageSourceAtPosition(Position p){
+        return puzzleView.getCell(p.getY() * columns + p.getX());
+    }
+
+    /**
+     * Getter.
+     * @return The view that draws the grid.
+     */
+
+    public PuzzleView getPuzzleView() {
+        return puzzleView;
     }
 
     /**
@@ -195,17 +234,6 @@ public class GraphicsGrid {
         this.roundText = roundText;
     }
 
-    /**
-     * Getter for specific image button in grid.
-     * @param p The Position to return an image button from.
-     * @return The desired image button.
-     */
-
-    public ImageButton getImageButtonAtPosition(Position p){
-        return buttonGrid[p.getY()][p.getX()];
-
-    }
-
     /**
      * Getter.
      * @return Camera button.
@@ -0,0 +1,455 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h1>ImagePipeline</h1>
+ * Turns photos into tiles off the main thread. A job opens the photo on
+ * the coordinator thread, then hands one column of tiles at a time to a
+ * bounded pool of workers, which decode, orient, split and scale them.
+ * The coordinator packs every column into the TileAtlas of the grid as
+ * it arrives and gives its tiles back to the pool for the next columns.
+ * A job can also cut the finished tiles into the tiles of a preview
+ * grid. With a TileDiskCache, tiles are read from it when they are
+ * there and written to it before they are finished in the tile config
+ * of the PhotoHandler, which may make them unreadable. The finished
+ * tiles are delivered to the Listener of the job on the main thread.
+ * When the tiles have to be made from the photo, a ProgressiveListener
+ * first gets low resolution placeholders, so play can start before the
+ * tiles are done. A cancelled job stops starting new columns, gives
+ * what it has made back to the pool and delivers nothing. It writes
+ * nothing more to the disk cache either, and the cache is cleared on
+ * the coordinator thread, after any job that is still running.
+ * <p>
+ * photoHandler - Does the image work.
+ * <p>
+ * coordinator - Runs one job at a time and waits for its columns.
+ * <p>
+ * workers - Decodes columns of tiles.
+ * <p>
+ * diskCache - Keeps made tiles on disk, may be null.
+ * <p>
+ * mainHandler - Delivers results on the main thread.
+ *
+ */
+
+public class ImagePipeline {
+
+    private static final int MAX_WORKERS = 4;
+
+    private PhotoHandler photoHandler;
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    private TileDiskCache diskCache;
+    private Handler mainHandler;
+
+    /**
+     * Receives the tiles of a job on the main thread.
+     */
+
+    public interface Listener {
+
+        /**
+         * Called when the tiles of a job that was not cancelled are done.
+         * @param gameGrid The grid the tiles were made for.
+         * @param tiles The atlas of the tiles, or null if the photo could
+         *              not be loaded.
+         * @param preview The atlas of the preview grid, null if the job
+         *                had none or the photo could not be loaded.
+         */
+
+        void onTilesReady(GameGrid gameGrid, TileAtlas tiles,
+                          TileAtlas preview);
+    }
+
+    /**
+     * Receives low resolution placeholders of the tiles of a job on the
+     * main thread, before the tiles themselves.
+     */
+
+    public interface ProgressiveListener extends Listener {
+
+        /**
+         * Called when the placeholders of a job that was not cancelled
+         * are done, only if the tiles are made from the photo.
+         * onTilesReady is called after it.
+         * @param gameGrid The grid the placeholders stand in for.
+         * @param placeholders The atlas of the placeholders, with cells
+         *                     PhotoHandler.PLACEHOLDER_SCALE times
+         *                     smaller than the tiles.
+         */
+
+        void onPlaceholdersReady(GameGrid gameGrid,
+                                 TileAtlas placeholders);
+    }
+
+    /**
+     * Standard constructor. Uses one worker less than there are cores,
+     * at least one and at most MAX_WORKERS.
+     * @param photoHandler The PhotoHandler to do the image work with.
+     */
+
+    public ImagePipeline(PhotoHandler photoHandler){
+        this(photoHandler, null);
+    }
+
+    /**
+     * Constructor with a disk cache. Uses one worker less than there are
+     * cores, at least one and at most MAX_WORKERS.
+     * @param photoHandler The PhotoHandler to do the image work with.
+     * @param diskCache The TileDiskCache to read and write tiles with,
+     *                  may be null.
+     */
+
+    public ImagePipeline(PhotoHandler photoHandler,
+                         TileDiskCache diskCache){
+        int threads = Math.max(1, Math.min(MAX_WORKERS,
+                Runtime.getRuntime().availableProcessors() - 1));
+        this.photoHandler = photoHandler;
+        this.coordinator = Executors.newSingleThreadExecutor();
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.diskCache = diskCache;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Starts making the tiles of a grid from a photo.
+     * @param path The path to the photo.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @param previewGrid A grid to also cut the tiles for, may be null.
+     * @param listener Receives the tiles on the main thread.
+     * @return The job, to cancel it with.
+     */
+
+    public Job load(String path, GameGrid gameGrid, GameGrid previewGrid,
+                    Listener listener){
+        Job job = new Job(path, gameGrid, previewGrid, listener);
+        coordinator.execute(job);
+        return job;
+    }
+
+    /**
+     * Deletes all entries of the disk cache, temporary files included,
+     * once the jobs started before are done, so a cancelled job that is
+     * still writing can not leave an entry behind.
+     */
+
+    public void clearDiskCache(){
+        if(diskCache == null){
+            return;
+        }
+        coordinator.execute(new Runnable() {
+            @Override
+            public void run() {
+                diskCache.clear();
+            }
+        });
+    }
+
+    /**
+     * Stops the threads once the started work is done. Cancel the jobs
+     * first so nothing is delivered.
+     */
+
+    public void shutdown(){
+        coordinator.shutdown();
+        workers.shutdown();
+    }
+
+    /**
+     * Gives the tiles made so far back to the pool of the PhotoHandler.
+     * @param tiles The tiles, columns and tiles may be null.
+     */
+
+    private void release(Bitmap[][] tiles){
+        photoHandler.getBitmapPool().putAll(tiles);
+    }
+
+    /**
+     * Gives an atlas back to the pool of the PhotoHandler.
+     * @param atlas The atlas, may be null.
+     */
+
+    private void release(TileAtlas atlas){
+        if(atlas != null){
+            photoHandler.getBitmapPool().put(atlas.getBitmap());
+        }
+    }
+
+    /**
+     * <h1>Job</h1>
+     * The loading of one grid.
+     * <p>
+     * path - The path to the photo.
+     * <p>
+     * gameGrid - Contains the grid size and tile sizes.
+     * <p>
+     * previewGrid - A grid to also cut the tiles for, may be null.
+     * <p>
+     * listener - Receives the tiles.
+     * <p>
+     * cancelled - Says if the job has been cancelled.
+     *
+     */
+
+    public class Job implements Runnable {
+
+        private String path;
+        private GameGrid gameGrid;
+        private GameGrid previewGrid;
+        private Listener listener;
+        private volatile boolean cancelled = false;
+
+        /**
+         * Standard constructor.
+         * @param path The path to the photo.
+         * @param gameGrid Contains the grid size and tile sizes.
+         * @param previewGrid A grid to also cut the tiles for, may be null.
+         * @param listener Receives the tiles.
+         */
+
+        private Job(String path, GameGrid gameGrid, GameGrid previewGrid,
+                    Listener listener){
+            this.path = path;
+            this.gameGrid = gameGrid;
+            this.previewGrid = previewGrid;
+            this.listener = listener;
+        }
+
+        /**
+         * Cancels the job. Nothing is delivered after this returns, if
+         * it is called on the main thread.
+         */
+
+        public void cancel(){
+            cancelled = true;
+        }
+
+        /**
+         * Getter.
+         * @return True if the job has been cancelled.
+         */
+
+        public boolean isCancelled(){
+            return cancelled;
+        }
+
+        /**
+         * Makes the tiles and posts them to the main thread.
+         */
+
+        @Override
+        public void run(){
+            if(cancelled){
+                return;
+            }
+            TileAtlas tiles = null;
+            TileAtlas preview = null;
+            try{
+                tiles = readOrProduceTiles();
+                if(tiles != null && previewGrid != null && !cancelled){
+                    preview = readOrRegroupPreview(tiles);
+                }
+                tiles = photoHandler.finishTiles(tiles);
+                preview = photoHandler.finishTiles(preview);
+            }catch (RuntimeException | OutOfMemoryError e){
+                release(tiles);
+                release(preview);
+                tiles = null;
+                preview = null;
+            }
+            final TileAtlas result = tiles;
+            final TileAtlas resultPreview = preview;
+
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if(cancelled){
+                        release(result);
+                        release(resultPreview);
+                    }else{
+                        listener.onTilesReady(gameGrid, result,
+                                resultPreview);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Reads the tiles from the disk cache, or makes them and writes
+         * them to it.
+         * @return The atlas of the tiles, or null if the job was cancelled
+         * or the photo could not be loaded.
+         */
+
+        private TileAtlas readOrProduceTiles(){
+            if(diskCache != null){
+                TileAtlas tiles = diskCache.read(path, gameGrid);
+                if(tiles != null){
+                    return tiles;
+                }
+            }
+            if(listener instanceof ProgressiveListener){
+                deliverPlaceholders((ProgressiveListener) listener);
+            }
+            TileAtlas tiles = produceTiles();
+            if(diskCache != null && tiles != null && !cancelled){
+                diskCache.write(path, gameGrid, tiles);
+            }
+            return tiles;
+        }
+
+        /**
+         * Makes the placeholders of the tiles and posts them to the main
+         * thread. Placeholders that cannot be made are skipped, the
+         * tiles are still made.
+         * @param progressiveListener Receives the placeholders.
+         */
+
+        private void deliverPlaceholders(
+                final ProgressiveListener progressiveListener){
+            if(cancelled){
+                return;
+            }
+            final TileAtlas placeholders;
+            try{
+                placeholders = photoHandler.producePlaceholderTiles(path,
+                        gameGrid);
+            }catch (RuntimeException | OutOfMemoryError e){
+                return;
+            }
+            if(placeholders == null){
+                return;
+            }
+
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if(cancelled){
+                        release(placeholders);
+                    }else{
+                        progressiveListener.onPlaceholdersReady(gameGrid,
+                                placeholders);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Reads the tiles of the preview grid from the disk cache, or
+         * cuts them from the tiles and writes them to it.
+         * @param tiles The atlas of gameGrid.
+         * @return The atlas of previewGrid.
+         */
+
+        private TileAtlas readOrRegroupPreview(TileAtlas tiles){
+            TileAtlas preview = null;
+            if(diskCache != null){
+                preview = diskCache.read(path, previewGrid);
+            }
+            if(preview == null){
+                preview = photoHandler.regroupTiles(tiles, previewGrid);
+                if(diskCache != null && !cancelled){
+                    diskCache.write(path, previewGrid, preview);
+                }
+            }
+            return preview;
+        }
+
+        /**
+         * Opens the photo, waits for the columns of tiles and packs them
+         * into the atlas in order. Falls back on decoding the whole photo
+         * here if it cannot be decoded by region.
+         * @return The atlas of the tiles, or null if the job was cancelled
+         * or the photo could not be loaded.
+         */
+
+        private TileAtlas produceTiles(){
+            final BitmapRegionDecoder decoder =
+                    photoHandler.openRegionDecoder(path);
+            if(decoder == null){
+                TileAtlas tiles = photoHandler.produceSplitTilesFromPath(
+                        path, gameGrid);
+                if(cancelled){
+                    release(tiles);
+                    return null;
+                }
+                return tiles;
+            }
+
+            TileAtlas atlas;
+            try{
+                atlas = photoHandler.createAtlas(gameGrid);
+            }catch (RuntimeException | OutOfMemoryError e){
+                decoder.recycle();
+                throw e;
+            }
+            final PhotoOrientation orientation =
+                    photoHandler.readOrientation(path, decoder.getWidth(),
+                            decoder.getHeight());
+            int columns = gameGrid.getColumns();
+            ArrayList<Future<Bitmap[]>> futures = new ArrayList<>(columns);
+            Bitmap[][] unpacked = new Bitmap[columns][];
+            boolean failed = false;
+            boolean interrupted = false;
+
+            for(int x = 0; x < columns; x++){
+                final int column = x;
+                futures.add(workers.submit(new Callable<Bitmap[]>() {
+                    @Override
+                    public Bitmap[] call() {
+                        if(cancelled){
+                            return null;
+                        }
+                        return photoHandler.decodeTileColumn(decoder,
+                                orientation, gameGrid, column);
+                    }
+                }));
+            }
+
+            for(int x = 0; x < columns; x++){
+                Bitmap[] column = null;
+                while(true){
+                    try{
+                        column = futures.get(x).get();
+                        break;
+                    }catch (InterruptedException e){
+                        cancelled = true;
+                        interrupted = true;
+                    }catch (ExecutionException e){
+                        failed = true;
+                        break;
+                    }
+                }
+                if(column == null){
+                    failed = true;
+                }else if(failed || cancelled){
+                    unpacked[x] = column;
+                }else{
+                    photoHandler.packColumn(atlas, x, column);
+                }
+            }
+            decoder.recycle();
+            if(interrupted){
+                Thread.currentThread().interrupt();
+            }
+
+            if(failed || cancelled){
+                release(unpacked);
+                release(atlas);
+                return null;
+            }
+            return atlas;
+        }
+    }
+}
@@ -16,7 +16,6 @@ import android.widget.Button;
 * -Fix button icons
 * -Write help text for freeplay and arcade modes.
 * -Keep empty action bar in menu?
-* -Swap image work to new thread!!!!
 * -Code limit 80
 * -Make methods private.
 * -Rewrite meta data tag.
@@ -55,7 +54,7 @@ public class Menu extends AppCompatActivity {
     }
 
     /**
-     * Sets up the two buttons of the menu.
+     * Sets up the three buttons of the menu.
      */
 
     private void prepareButtons(){
@@ -64,6 +63,9 @@ public class Menu extends AppCompatActivity {
 
         b = findViewById(R.id.arcade_button);
         b.setOnClickListener(new ArcadeListener());
+
+        b = findViewById(R.id.sliding_button);
+        b.setOnClickListener(new SlidingListener());
     }
 
     /**
@@ -91,4 +93,18 @@ public class Menu extends AppCompatActivity {
             Menu.this.startActivity(myIntent);
         }
     }
+
+    /**
+     * OnClickListener for the Sliding Puzzle button. Starts the sliding
+     * mode.
+     */
+    class SlidingListener implements View.OnClickListener{
+
+        @Override
+        public void onClick(View view) {
+            Intent myIntent = new Intent(Menu.this, Game.class);
+            myIntent.putExtra("type", 2);
+            Menu.this.startActivity(myIntent);
+        }
+    }
 }
@@ -0,0 +1,303 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * <h1>ParcelableGameGrid</h1>
+ * Parcelable adapter for GameGrid, which lives in puzzle-core and knows
+ * nothing of Android. Writes the compact layout and reads both the
+ * compact layout and the older layout with one typed array of tiles
+ * per row. A parcel that does not hold a valid grid is rejected, and
+ * leaves no GameGrid.
+ * <p>
+ * gameGrid - The adapted GameGrid, null if the parcel was rejected.
+ *
+ */
+
+public class ParcelableGameGrid implements Parcelable {
+
+    private static final int PARCEL_MAGIC = 0xC0DE0000;
+    private static final int PARCEL_MAGIC_MASK = 0xFFFF0000;
+    private static final int PARCEL_VERSION = 1;
+
+    private GameGrid gameGrid;
+
+    /**
+     * Standard constructor.
+     * @param gameGrid The GameGrid to adapt.
+     */
+
+    public ParcelableGameGrid(GameGrid gameGrid){
+        this.gameGrid = gameGrid;
+    }
+
+    /**
+     * Parceable constructor. Rejects the parcel, leaving gameGrid null,
+     * if it does not hold a valid grid.
+     * @param in Parcel object containing data.
+     */
+
+    private ParcelableGameGrid(Parcel in) {
+        int header = in.readInt();
+        try{
+            if((header & PARCEL_MAGIC_MASK) == PARCEL_MAGIC){
+                gameGrid = readCompact(in, header & ~PARCEL_MAGIC_MASK);
+            }else{
+                gameGrid = readLegacy(in, header);
+            }
+        }catch (IllegalArgumentException e){
+            gameGrid = null;
+        }
+    }
+
+    /**
+     * Reads a grid in the compact layout. The whole layout is read
+     * before anything is checked, so a rejected grid leaves the parcel
+     * after it readable.
+     * @param in The Parcel to read from, after the header.
+     * @param version The version in the header.
+     * @return The grid.
+     * @throws IllegalArgumentException if the version is unknown, the
+     * grid size is unsupported, the permutation does not match the grid
+     * or the marked tile is outside it.
+     */
+
+    private static GameGrid readCompact(Parcel in, int version){
+        if(version != PARCEL_VERSION){
+            throw new IllegalArgumentException(
+                    "Unknown GameGrid parcel version");
+        }
+        int tileWidth = in.readInt();
+        int tileHeight = in.readInt();
+        int rows = in.readInt();
+        int columns = in.readInt();
+        int markedIndex = in.readInt();
+        byte packed[] = in.createByteArray();
+
+        checkSize(tileWidth, tileHeight, rows, columns);
+        int imageSources[] = new int[rows * columns];
+        PermutationCodec.decode(packed, imageSources);
+        return createGrid(tileWidth, tileHeight, rows, columns,
+                imageSources, markedIndex);
+    }
+
+    /**
+     * Reads a grid in the older layout. Its length depends on the grid
+     * size, so reading stops at the first value found wrong.
+     * @param in The Parcel to read from, after the tile width.
+     * @param tileWidth The tile width, read as the header.
+     * @return The grid.
+     * @throws IllegalArgumentException if the grid size is unsupported,
+     * a row is not as long as the grid, a position is outside the grid
+     * or the tiles do not form a permutation.
+     */
+
+    private static GameGrid readLegacy(Parcel in, int tileWidth){
+        int tileHeight = in.readInt();
+        int rows = in.readInt();
+        int columns = in.readInt();
+        checkSize(tileWidth, tileHeight, rows, columns);
+        int imageSources[] = new int[rows * columns];
+
+        for (int i = 0; i < rows; i++) {
+            if(in.readInt() != columns){
+                throw new IllegalArgumentException(
+                        "GameGrid parcel row does not match the grid");
+            }
+            for (int j = 0; j < columns; j++) {
+                in.readInt();
+                int actual = readLegacyPosition(in, rows, columns);
+                if(actual < 0){
+                    throw new IllegalArgumentException(
+                            "GameGrid parcel tile has no position");
+                }
+                imageSources[actual] = readLegacyPosition(in, rows,
+                        columns);
+            }
+        }
+        int markedIndex = readLegacyPosition(in, rows, columns);
+        return createGrid(tileWidth, tileHeight, rows, columns,
+                imageSources, markedIndex);
+    }
+
+    /**
+     * Checks the sizes read from a parcel before anything is allocated
+     * from them.
+     * @param tileWidth The width of a tile.
+     * @param tileHeight The height of a tile.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @throws IllegalArgumentException if a tile side is smaller than 1
+     * or the grid size is not supported by GridSize.
+     */
+
+    private static void checkSize(int tileWidth, int tileHeight, int rows,
+                                  int columns){
+        if(tileWidth < 1 || tileHeight < 1){
+            throw new IllegalArgumentException(
+                    "GameGrid parcel has empty tiles");
+        }
+        new GridSize(rows, columns);
+    }
+
+    /**
+     * Makes the grid read from a parcel.
+     * @param tileWidth The width of a tile.
+     * @param tileHeight The height of a tile.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param imageSources The image source of every tile.
+     * @param markedIndex The index of the marked tile, -1 if none.
+     * @return The grid.
+     * @throws IllegalArgumentException if imageSources is not a
+     * permutation of the tiles or markedIndex is outside the grid.
+     */
+
+    private static GameGrid createGrid(int tileWidth, int tileHeight,
+                                       int rows, int columns,
+                                       int imageSources[], int markedIndex){
+        if(markedIndex < -1 || markedIndex >= rows * columns){
+            throw new IllegalArgumentException(
+                    "GameGrid parcel marks a tile outside the grid");
+        }
+        GameGrid gameGrid = new GameGrid(tileWidth, tileHeight, rows,
+                columns, imageSources);
+        if(markedIndex >= 0){
+            gameGrid.setMarkedTile(gameGrid.getPosition(markedIndex));
+        }
+        return gameGrid;
+    }
+
+    /**
+     * Creator constructor for Parceable.
+     */
+
+    public static final Creator<ParcelableGameGrid> CREATOR =
+            new Creator<ParcelableGameGrid>() {
+        @Override
+        public ParcelableGameGrid createFromParcel(Parcel in) {
+            return new ParcelableGameGrid(in);
+        }
+
+        @Override
+        public ParcelableGameGrid[] newArray(int size) {
+            return new ParcelableGameGrid[size];
+        }
+    };
+
+    /**
+     * Reads a Position written by Parcel.writeParcelable in the older
+     * layout, the class name followed by y and x.
+     * @param in The Parcel to read from.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @return The index of the position, -1 if it was null.
+     * @throws IllegalArgumentException if the position is outside the
+     * grid.
+     */
+
+    private static int readLegacyPosition(Parcel in, int rows,
+                                          int columns){
+        if(in.readString() == null){
+            return -1;
+        }
+        int y = in.readInt();
+        int x = in.readInt();
+        if(y < 0 || y >= rows || x < 0 || x >= columns){
+            throw new IllegalArgumentException(
+                    "GameGrid parcel position is outside the grid");
+        }
+        return y * columns + x;
+    }
+
+    /**
+     * Writes a Position the way Parcel.writeParcelable did in the older
+     * layout.
+     * @param parcel The Parcel to write to.
+     * @param position The position to write, may be null.
+     */
+
+    private static void writeLegacyPosition(Parcel parcel,
+                                            Position position){
+        if(position == null){
+            parcel.writeString(null);
+            return;
+        }
+        parcel.writeString(Position.class.getName());
+        parcel.writeInt(position.getY());
+        parcel.writeInt(position.getX());
+    }
+
+    /**
+     * Getter.
+     * @return The adapted GameGrid, null if the parcel was rejected.
+     */
+
+    public GameGrid getGameGrid() {
+        return gameGrid;
+    }
+
+    /**
+     * Parceable method.
+     * @return 0
+     */
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /**
+     * Writes data to a parcel object in the compact layout. The
+     * permutation is packed with PermutationCodec and the marked tile
+     * is written as an index, -1 if there is none.
+     * @param parcel The Parcel to write to.
+     * @param i Not used.
+     */
+
+    @Override
+    public void writeToParcel(Parcel parcel, int i) {
+        Position marked = gameGrid.getMarkedTile();
+
+        parcel.writeInt(PARCEL_MAGIC | PARCEL_VERSION);
+        parcel.writeInt(gameGrid.getTileWidth());
+        parcel.writeInt(gameGrid.getTileHeight());
+        parcel.writeInt(gameGrid.getRows());
+        parcel.writeInt(gameGrid.getColumns());
+        parcel.writeInt(marked == null ? -1 :
+                gameGrid.indexOf(marked.getY(), marked.getX()));
+        parcel.writeByteArray(PermutationCodec.encode(
+                gameGrid.getImageSources()));
+    }
+
+    /**
+     * Writes data to a parcel object in the older layout, where every
+     * row is a typed array of tiles with two positions each.
+     * @param parcel The Parcel to write to.
+     * @param i Not used.
+     */
+
+    void writeLegacyToParcel(Parcel parcel, int i) {
+        int rows = gameGrid.getRows();
+        int columns = gameGrid.getColumns();
+
+        parcel.writeInt(gameGrid.getTileWidth());
+        parcel.writeInt(gameGrid.getTileHeight());
+        parcel.writeInt(rows);
+        parcel.writeInt(columns);
+
+        for (int j = 0; j < rows; j++) {
+            parcel.writeInt(columns);
+            for (int k = 0; k < columns; k++) {
+                int index = gameGrid.indexOf(j, k);
+                parcel.writeInt(1);
+                writeLegacyPosition(parcel, gameGrid.getPosition(index));
+                writeLegacyPosition(parcel, gameGrid.getPosition(
+                        gameGrid.getImageSource(index)));
+            }
+        }
+
+        writeLegacyPosition(parcel, gameGrid.getMarkedTile());
+    }
+}
@@ -2,24 +2,153 @@ package se.umu.cs.dv16vgn.pictopuzzle;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.media.ExifInterface;
+import android.os.Build;
 import java.io.File;
 import java.io.IOException;
 
 /**
  * <h1>PhotoHandler</h1>
- * Governs manipulations of the photo.
+ * Governs manipulations of the photo. The tiles of a grid are made into
+ * one TileAtlas. New atlases, tiles and decode buffers are taken from a
+ * BitmapPool and tiles and decode buffers are given back to it once
+ * they are packed. Atlases are made in the tile config, or in ARGB_8888
+ * and then moved to graphics memory by finishTiles when the tile config
+ * is HARDWARE. Bitmap.Config.HARDWARE does not exist below API level 26,
+ * so it is only named behind a check of the API level.
+ * <p>
+ * bitmapPool - Supplies reusable bitmaps.
+ * <p>
+ * tileConfig - The pixel format of finished tiles.
+ * <p>
+ * hardwareTiles - Says if tileConfig is HARDWARE.
+ * <p>
+ * peakBitmapBytes - The most bitmap memory held at once by a decode
+ * since the last reset.
+ * <p>
+ * pixelWork - The pixels decoded, drawn and copied since the last reset.
+ * <p>
+ * PLACEHOLDER_SCALE - How many times smaller placeholder tiles are than
+ * the tiles they stand in for, in each direction.
  *
  */
 
 public class PhotoHandler {
 
+    static final int PLACEHOLDER_SCALE = 8;
+
+    private BitmapPool bitmapPool;
+    private Bitmap.Config tileConfig = Bitmap.Config.ARGB_8888;
+    private boolean hardwareTiles = false;
+    private long peakBitmapBytes = 0;
+    private long pixelWork = 0;
+
     /**
-     * Standard constructor.
+     * Standard constructor. Uses a pool that holds nothing, so every
+     * bitmap is allocated.
      */
 
     public PhotoHandler(){
+        this(new BitmapPool(0));
+    }
+
+    /**
+     * Constructor with a pool.
+     * @param bitmapPool The pool to take and give back bitmaps with.
+     */
+
+    public PhotoHandler(BitmapPool bitmapPool){
+        this.bitmapPool = bitmapPool;
+    }
+
+    /**
+     * Getter.
+     * @return The pool bitmaps are taken from.
+     */
+
+    public BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Chooses the pixel format of tiles for a device. Camera photos
+     * have no alpha, so low memory devices get RGB_565 at half the
+     * size, and devices that have hardware bitmaps keep the pixels in
+     * graphics memory only.
+     * @param lowRamDevice Says if the device is a low memory device.
+     * @param sdkInt The API level of the device.
+     * @return The tile config.
+     */
+
+    public static Bitmap.Config chooseTileConfig(boolean lowRamDevice,
+                                                 int sdkInt){
+        if(lowRamDevice){
+            return Bitmap.Config.RGB_565;
+        }else if(sdkInt >= Build.VERSION_CODES.O){
+            return Bitmap.Config.HARDWARE;
+        }
+        return Bitmap.Config.ARGB_8888;
+    }
+
+    /**
+     * Getter.
+     * @return The pixel format of finished tiles.
+     */
 
+    public Bitmap.Config getTileConfig() {
+        return tileConfig;
+    }
+
+    /**
+     * Setter.
+     * @param tileConfig The pixel format of finished tiles, HARDWARE
+     *                   only from API level 26.
+     */
+
+    public void setTileConfig(Bitmap.Config tileConfig) {
+        this.tileConfig = tileConfig;
+        this.hardwareTiles = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                && tileConfig == Bitmap.Config.HARDWARE;
+    }
+
+    /**
+     * Getter.
+     * @return The pixel format tiles are decoded and drawn in before
+     * they are finished.
+     */
+
+    private Bitmap.Config getWorkingConfig(){
+        return tileConfig == Bitmap.Config.RGB_565
+                ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+    }
+
+    /**
+     * Moves an atlas to the tile config when it is made in another, that
+     * is to graphics memory when the tile config is HARDWARE. The
+     * software bitmap is given back to the pool. Hardware bitmaps can not
+     * be drawn into or read, so call it when the atlas has been cached
+     * and cut for the preview.
+     * @param atlas The atlas, may be null.
+     * @return The finished atlas, or the atlas if it needs no change.
+     */
+
+    public TileAtlas finishTiles(TileAtlas atlas){
+        if(atlas == null || !hardwareTiles
+                || atlas.getBitmap().getConfig() == Bitmap.Config.HARDWARE){
+            return atlas;
+        }
+        Bitmap finished = atlas.getBitmap().copy(Bitmap.Config.HARDWARE,
+                false);
+        if(finished == null){
+            return atlas;
+        }
+        bitmapPool.put(atlas.getBitmap());
+        return atlas.withBitmap(finished);
     }
 
     /**
@@ -40,90 +169,538 @@ public class PhotoHandler {
     }
 
     /**
-     * Opens a photo and turns it into a bitmap. Rotates the
-     * photo if it's in landscape form.
+     * Opens a photo and turns it into a bitmap at full resolution.
+     * Turns the photo by its PhotoOrientation.
      * @param path The path to the photo.
      * @return The Bitmap version of the photo.
      */
 
     public Bitmap produceBitmapFromPath(String path){
-        File file = new File(path);
+        return produceBitmapFromPath(path, 0, 0);
+    }
+
+    /**
+     * Opens a photo and turns it into a bitmap no smaller than needed to
+     * cover the target size. The bounds are read first, the decoder
+     * then subsamples by a power of two and scales the rest of the way
+     * with densities, so the full photo is never held in memory. Turns
+     * the photo by its PhotoOrientation in one draw, the target is the
+     * size after turning.
+     * @param path The path to the photo.
+     * @param targetWidth The width to cover, 0 for full resolution.
+     * @param targetHeight The height to cover, 0 for full resolution.
+     * @return The Bitmap version of the photo.
+     */
+
+    public Bitmap produceBitmapFromPath(String path, int targetWidth,
+                                        int targetHeight){
+        PhotoOrientation orientation = readOrientation(path);
+        if(orientation == null){
+            return null;
+        }
+        Bitmap b = decodeBitmap(path, orientation, targetWidth,
+                targetHeight);
+        if(b == null){
+            return null;
+        }
+        if(orientation.getRotation() == 0 && !orientation.isFlipped()){
+            return b;
+        }
+
+        boolean swapped = orientation.getRotation() % 180 != 0;
+        Bitmap turned = drawScaled(b, new Rect(0, 0, b.getWidth(),
+                b.getHeight()), orientation,
+                swapped ? b.getHeight() : b.getWidth(),
+                swapped ? b.getWidth() : b.getHeight());
+        recordBitmapBytes((long) b.getByteCount() + turned.getByteCount());
+        bitmapPool.put(b);
+        return turned;
+    }
+
+    /**
+     * Reads the size of a photo without decoding it, and its
+     * orientation.
+     * @param path The path to the photo.
+     * @return The orientation, or null if there is no photo that can be
+     * decoded.
+     */
+
+    PhotoOrientation readOrientation(String path){
+        if(!new File(path).exists()){
+            return null;
+        }
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, bounds);
+        if(bounds.outWidth <= 0 || bounds.outHeight <= 0){
+            return null;
+        }
+        return readOrientation(path, bounds.outWidth, bounds.outHeight);
+    }
+
+    /**
+     * Reads the orientation of a photo from its EXIF metadata. Photos
+     * without it are taken as stored.
+     * @param path The path to the photo.
+     * @param width The width of the photo as stored.
+     * @param height The height of the photo as stored.
+     * @return The orientation.
+     */
+
+    PhotoOrientation readOrientation(String path, int width, int height){
+        int exifOrientation = PhotoOrientation.EXIF_NORMAL;
+        try{
+            ExifInterface exif = new ExifInterface(path);
+            exifOrientation = exif.getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+        }catch (IOException e){
+            exifOrientation = PhotoOrientation.EXIF_NORMAL;
+        }
+        return PhotoOrientation.fromExif(exifOrientation, width, height);
+    }
+
+    /**
+     * Opens a photo like produceBitmapFromPath, without turning it.
+     * @param path The path to the photo.
+     * @param orientation The orientation of the photo.
+     * @param targetWidth The width to cover after turning, 0 for full
+     *                    resolution.
+     * @param targetHeight The height to cover after turning, 0 for full
+     *                     resolution.
+     * @return The photo as stored, or null if there is none.
+     */
+
+    private Bitmap decodeBitmap(String path, PhotoOrientation orientation,
+                                int targetWidth, int targetHeight){
         BitmapFactory.Options bmOptions = new BitmapFactory.Options();
+        bmOptions.inPreferredConfig = getWorkingConfig();
+
+        if(targetWidth > 0 && targetHeight > 0){
+            int width = orientation.getWidth();
+            int height = orientation.getHeight();
 
-        if(!file.exists()){
+            bmOptions.inSampleSize = calculateInSampleSize(width, height,
+                    targetWidth, targetHeight);
+            width = width / bmOptions.inSampleSize;
+            height = height / bmOptions.inSampleSize;
+            if((long) targetWidth * height > (long) targetHeight * width){
+                bmOptions.inDensity = width;
+                bmOptions.inTargetDensity = targetWidth;
+            }else{
+                bmOptions.inDensity = height;
+                bmOptions.inTargetDensity = targetHeight;
+            }
+            bmOptions.inScaled = bmOptions.inTargetDensity
+                    < bmOptions.inDensity;
+        }
+
+        Bitmap b = BitmapFactory.decodeFile(path, bmOptions);
+        if(b == null){
             return null;
-        }else {
-            Bitmap b = BitmapFactory.decodeFile(path, bmOptions);
-            if(b.getWidth() > b.getHeight()){
-                return rotateBitmap(b, 90);
-            }else {
-                return b;
+        }
+        recordBitmapBytes(b.getByteCount());
+        recordPixelWork((long) b.getWidth() * b.getHeight());
+        return b;
+    }
+
+    /**
+     * Opens a photo and turns it straight into the atlas of the tiles of
+     * a grid. Every tile decodes only its own rectangle of the photo,
+     * subsampled close to the tile size, so the whole photo is never
+     * held in memory. Falls back on decoding the whole photo if the file
+     * cannot be decoded by region. Every tile is turned by the
+     * PhotoOrientation of the photo as it is scaled.
+     * @param path The path to the photo.
+     * @param gg Contains the grid size and tile sizes.
+     * @return The atlas of the tiles, or null if there is no photo.
+     */
+
+    public TileAtlas produceTilesFromPath(String path, GameGrid gg){
+        if(!new File(path).exists()){
+            return null;
+        }
+        BitmapRegionDecoder decoder = openRegionDecoder(path);
+        if(decoder == null){
+            return produceSplitTilesFromPath(path, gg);
+        }
+
+        try{
+            PhotoOrientation orientation = readOrientation(path,
+                    decoder.getWidth(), decoder.getHeight());
+            TileAtlas atlas = createAtlas(gg);
+            for(int x = 0; x < gg.getColumns(); ++x) {
+                packColumn(atlas, x, decodeTileColumn(decoder, orientation,
+                        gg, x));
             }
+            return finishTiles(atlas);
+        }finally {
+            decoder.recycle();
         }
     }
 
     /**
-     * Rotates a Bitmap.
-     * @param source The bitmap to rotate.
-     * @param angle The amount of degrees to rotate.
-     * @return The rotated Bitmap.
+     * Opens a photo for decoding by region.
+     * @param path The path to the photo.
+     * @return The decoder, or null if the file cannot be decoded by
+     * region.
      */
 
-    private Bitmap rotateBitmap(Bitmap source, float angle) {
-        Matrix matrix = new Matrix();
-        matrix.postRotate(angle);
-        return Bitmap.createBitmap(source, 0, 0,
-                source.getWidth(), source.getHeight(), matrix, true);
+    BitmapRegionDecoder openRegionDecoder(String path){
+        try{
+            return BitmapRegionDecoder.newInstance(path, false);
+        }catch (IOException e){
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the photo bounded by the grid area, for files that cannot
+     * be decoded by region. The photo is turned and scaled to the grid
+     * area in one draw and given back to the pool, and the scaled image
+     * is the atlas of the tiles as it is.
+     * @param path The path to the photo.
+     * @param gg Contains the grid size and tile sizes.
+     * @return The atlas of the tiles, or null if there is no photo.
+     */
+
+    TileAtlas produceSplitTilesFromPath(String path, GameGrid gg){
+        int gridWidth = gg.getTileWidth() * gg.getColumns();
+        int gridHeight = gg.getTileHeight() * gg.getRows();
+        PhotoOrientation orientation = readOrientation(path);
+        if(orientation == null){
+            return null;
+        }
+        Bitmap b = decodeBitmap(path, orientation, gridWidth, gridHeight);
+        if(b == null){
+            return null;
+        }
+        Bitmap scaled = drawScaled(b, new Rect(0, 0, b.getWidth(),
+                b.getHeight()), orientation, gridWidth, gridHeight);
+        recordBitmapBytes((long) b.getByteCount() + scaled.getByteCount());
+        bitmapPool.put(b);
+        return new TileAtlas(scaled, gg);
+    }
+
+    /**
+     * Makes an atlas of placeholder tiles of a grid from a heavily
+     * subsampled decode of the photo, to show while the real tiles are
+     * made. Every placeholder is PLACEHOLDER_SCALE times smaller than its
+     * tile in each direction, and must be drawn scaled to the tile size.
+     * @param path The path to the photo.
+     * @param gg Contains the grid size and tile sizes.
+     * @return The atlas of the placeholders, or null if there is no
+     * photo.
+     */
+
+    TileAtlas producePlaceholderTiles(String path, GameGrid gg){
+        GameGrid placeholderGrid = new GameGrid(
+                Math.max(1, gg.getTileWidth() / PLACEHOLDER_SCALE),
+                Math.max(1, gg.getTileHeight() / PLACEHOLDER_SCALE),
+                gg.getRows(), gg.getColumns());
+        return produceSplitTilesFromPath(path, placeholderGrid);
+    }
+
+    /**
+     * Takes a bitmap the size of the grid area from the pool to pack the
+     * tiles of a grid into.
+     * @param gg Contains the grid size and tile sizes.
+     * @return The atlas, with undefined pixels.
+     */
+
+    TileAtlas createAtlas(GameGrid gg){
+        int width = gg.getTileWidth() * gg.getColumns();
+        int height = gg.getTileHeight() * gg.getRows();
+        Bitmap bitmap = bitmapPool.getDirty(width, height, getWorkingConfig());
+        if(bitmap == null){
+            bitmap = Bitmap.createBitmap(width, height, getWorkingConfig());
+        }
+        return new TileAtlas(bitmap, gg);
     }
 
     /**
-     * Splits the Bitmap into a Matrix and resizes the images so they fit the screen.
-     * @param bitmap
-     * @param gg
-     * @return
+     * Copies a column of tiles into their cells of an atlas and gives
+     * the tiles back to the pool, so the next columns can reuse them.
+     * @param atlas The atlas, made by createAtlas.
+     * @param x The column of the tiles.
+     * @param column The tiles of the column, indexed by row.
      */
 
-    public Bitmap[][] splitAndResizeBitmap(Bitmap bitmap, GameGrid gg) {
+    void packColumn(TileAtlas atlas, int x, Bitmap[] column){
+        Canvas canvas = new Canvas(atlas.getBitmap());
+        int left = x * atlas.getCellWidth();
+        for(int y = 0; y < column.length; ++y){
+            canvas.drawBitmap(column[y], left, y * atlas.getCellHeight(),
+                    null);
+            bitmapPool.put(column[y]);
+        }
+        canvas.setBitmap(null);
+        recordPixelWork((long) atlas.getCellWidth() * atlas.getCellHeight()
+                * column.length);
+    }
+
+    /**
+     * Decodes one column of tiles from a photo. Safe to call from
+     * several threads on the same decoder.
+     * @param decoder The decoder of the photo.
+     * @param orientation The orientation of the photo.
+     * @param gg Contains the grid size and tile sizes.
+     * @param x The column to decode.
+     * @return The tiles of the column, indexed by row.
+     */
+
+    Bitmap[] decodeTileColumn(BitmapRegionDecoder decoder,
+                              PhotoOrientation orientation, GameGrid gg,
+                              int x){
         int columns = gg.getColumns();
         int rows = gg.getRows();
-        Bitmap[][] bitmaps = new Bitmap[columns][rows];
-        int width, height;
-
-        width = bitmap.getWidth() / columns;
-        height = bitmap.getHeight() / rows;
-
-        for(int x = 0; x < columns; ++x) {
-            for(int y = 0; y < rows; ++y) {
-                bitmaps[x][y] = Bitmap.createBitmap(bitmap, x * width,
-                        y * height, width, height);
-                bitmaps[x][y] = getResizedBitmap(bitmaps[x][y],
-                        gg.getTileWidth(), gg.getTileHeight());
-            }
+        Bitmap[] bitmaps = new Bitmap[rows];
+        int bitmapWidth = orientation.getWidth();
+        int bitmapHeight = orientation.getHeight();
+
+        int left = (int) ((long) x * bitmapWidth / columns);
+        int width = Math.max(1,
+                (int) ((long) (x + 1) * bitmapWidth / columns) - left);
+        for(int y = 0; y < rows; ++y) {
+            int top = (int) ((long) y * bitmapHeight / rows);
+            int height = Math.max(1,
+                    (int) ((long) (y + 1) * bitmapHeight / rows) - top);
+            bitmaps[y] = decodeTile(decoder, orientation, left, top, width,
+                    height, gg.getTileWidth(), gg.getTileHeight());
         }
         return bitmaps;
     }
 
     /**
-     * Resizes a Bitmap.
-     * @param bm The Bitmap to resize.
-     * @param newWidth The new width.
-     * @param newHeight The new height.
-     * @return A resized Bitmap.
+     * Decodes one tile from a photo. Safe to call from several threads
+     * on the same decoder. The region is decoded into a pooled buffer,
+     * then turned and scaled into the tile in one draw, and the buffer
+     * is given back to the pool. Only the part of the buffer the region
+     * was decoded into is drawn, a pooled buffer is not cleared first.
+     * @param decoder The decoder of the photo.
+     * @param orientation The orientation of the photo.
+     * @param left The left edge of the tile in the turned photo.
+     * @param top The top edge of the tile in the turned photo.
+     * @param width The width of the tile in the turned photo.
+     * @param height The height of the tile in the turned photo.
+     * @param tileWidth The width of the finished tile.
+     * @param tileHeight The height of the finished tile.
+     * @return The tile.
      */
 
-    private Bitmap getResizedBitmap(Bitmap bm, int newWidth, int newHeight) {
-        int width = bm.getWidth();
-        int height = bm.getHeight();
-        float scaleWidth = ((float) newWidth) / width;
-        float scaleHeight = ((float) newHeight) / height;
+    Bitmap decodeTile(BitmapRegionDecoder decoder,
+                      PhotoOrientation orientation, int left, int top,
+                      int width, int height, int tileWidth,
+                      int tileHeight){
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = getWorkingConfig();
+        int stored[] = orientation.toStored(left, top, left + width,
+                top + height);
+        Rect region = new Rect(stored[0], stored[1], stored[2], stored[3]);
+        options.inSampleSize = calculateInSampleSize(width, height,
+                tileWidth, tileHeight);
+        options.inMutable = true;
+        int sampledWidth = sampledSize(region.width(), options.inSampleSize);
+        int sampledHeight = sampledSize(region.height(),
+                options.inSampleSize);
+        options.inBitmap = bitmapPool.getDirty(sampledWidth, sampledHeight,
+                getWorkingConfig());
+
+        Bitmap decoded;
+        try{
+            decoded = decoder.decodeRegion(region, options);
+        }catch (IllegalArgumentException e){
+            if(options.inBitmap == null){
+                throw e;
+            }
+            bitmapPool.put(options.inBitmap);
+            options.inBitmap = null;
+            decoded = decoder.decodeRegion(region, options);
+        }
+        recordBitmapBytes(decoded.getByteCount());
+        recordPixelWork((long) decoded.getWidth() * decoded.getHeight());
+        Bitmap tile = drawScaled(decoded, new Rect(0, 0,
+                Math.min(sampledWidth, decoded.getWidth()),
+                Math.min(sampledHeight, decoded.getHeight())), orientation,
+                tileWidth, tileHeight);
+        bitmapPool.put(decoded);
+        return tile;
+    }
+
+    /**
+     * Calculates the length of a region decoded with a sample size. The
+     * decoder rounds down, but never decodes an empty region.
+     * @param length The length of the region in the photo.
+     * @param sampleSize The sample size.
+     * @return The length of the decoded region.
+     */
+
+    static int sampledSize(int length, int sampleSize){
+        return Math.max(1, length / sampleSize);
+    }
+
+    /**
+     * Draws a rectangle of a bitmap into a new bitmap from the pool,
+     * turning it and scaling it to fill the new bitmap in one pass.
+     * @param source The bitmap to draw from, left as it is.
+     * @param region The rectangle of the source to draw.
+     * @param orientation How to mirror and rotate the rectangle.
+     * @param tileWidth The width of the new bitmap.
+     * @param tileHeight The height of the new bitmap.
+     * @return The new bitmap.
+     */
+
+    private Bitmap drawScaled(Bitmap source, Rect region,
+                              PhotoOrientation orientation, int tileWidth,
+                              int tileHeight){
+        Bitmap tile = bitmapPool.getDirty(tileWidth, tileHeight,
+                getWorkingConfig());
+        if(tile == null){
+            tile = Bitmap.createBitmap(tileWidth, tileHeight,
+                    getWorkingConfig());
+        }
+        int rotation = orientation.getRotation();
         Matrix matrix = new Matrix();
+        matrix.setTranslate(-region.left, -region.top);
+        if(orientation.isFlipped()){
+            matrix.postScale(-1, 1);
+            matrix.postTranslate(region.width(), 0);
+        }
+        matrix.postRotate(rotation);
+        if(rotation == 90){
+            matrix.postTranslate(region.height(), 0);
+        }else if(rotation == 180){
+            matrix.postTranslate(region.width(), region.height());
+        }else if(rotation == 270){
+            matrix.postTranslate(0, region.width());
+        }
+        if(rotation % 180 != 0){
+            matrix.postScale((float) tileWidth / region.height(),
+                    (float) tileHeight / region.width());
+        }else{
+            matrix.postScale((float) tileWidth / region.width(),
+                    (float) tileHeight / region.height());
+        }
+
+        Canvas canvas = new Canvas(tile);
+        canvas.drawBitmap(source, matrix,
+                new Paint(Paint.FILTER_BITMAP_FLAG));
+        canvas.setBitmap(null);
+        recordPixelWork((long) tileWidth * tileHeight);
+        return tile;
+    }
+
+    /**
+     * Calculates the largest power of two a photo can be subsampled by
+     * and still cover the target size.
+     * @param width The width of the photo.
+     * @param height The height of the photo.
+     * @param targetWidth The width to cover.
+     * @param targetHeight The height to cover.
+     * @return The sample size, at least 1.
+     */
+
+    static int calculateInSampleSize(int width, int height,
+                                     int targetWidth, int targetHeight){
+        int sampleSize = 1;
+        while(width / (sampleSize * 2) >= targetWidth
+                && height / (sampleSize * 2) >= targetHeight){
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Records the bitmap memory held at once, if it is a new peak.
+     * @param bytes The bytes held.
+     */
+
+    private synchronized void recordBitmapBytes(long bytes){
+        peakBitmapBytes = Math.max(peakBitmapBytes, bytes);
+    }
+
+    /**
+     * Adds to the pixel work.
+     * @param pixels The pixels decoded, drawn or copied.
+     */
+
+    private synchronized void recordPixelWork(long pixels){
+        pixelWork += pixels;
+    }
+
+    /**
+     * Getter.
+     * @return The pixels decoded, drawn and copied since the last reset.
+     */
+
+    public synchronized long getPixelWork() {
+        return pixelWork;
+    }
+
+    /**
+     * Resets the pixel work.
+     */
+
+    public synchronized void resetPixelWork() {
+        pixelWork = 0;
+    }
 
-        matrix.postScale(scaleWidth, scaleHeight);
-        Bitmap resizedBitmap = Bitmap.createBitmap(
-                bm, 0, 0, width, height, matrix, false);
-        bm.recycle();
+    /**
+     * Getter.
+     * @return The most bitmap memory held at once by a decode since the
+     * last reset.
+     */
+
+    public synchronized long getPeakBitmapBytes() {
+        return peakBitmapBytes;
+    }
+
+    /**
+     * Resets the peak bitmap memory.
+     */
+
+    public synchronized void resetPeakBitmapBytes() {
+        peakBitmapBytes = 0;
+    }
+
+    /**
+     * Resizes the Bitmap so it fits the grid area, which makes it the
+     * atlas of the tiles of the grid. The whole Bitmap is scaled in one
+     * draw instead of slicing and scaling every tile on its own.
+     * @param bitmap The Bitmap to resize, left as it is.
+     * @param gg Contains the grid size and tile sizes.
+     * @return The atlas of the tiles.
+     */
+
+    public TileAtlas resizeIntoAtlas(Bitmap bitmap, GameGrid gg) {
+        Bitmap scaled = drawScaled(bitmap, new Rect(0, 0, bitmap.getWidth(),
+                bitmap.getHeight()), PhotoOrientation.asStored(
+                bitmap.getWidth(), bitmap.getHeight()),
+                gg.getTileWidth() * gg.getColumns(),
+                gg.getTileHeight() * gg.getRows());
+        recordBitmapBytes((long) bitmap.getByteCount()
+                + scaled.getByteCount());
+        return new TileAtlas(scaled, gg);
+    }
+
+    /**
+     * Scales the picture made up by the tiles of an atlas to the area of
+     * another grid, which makes it the atlas of that grid. Used to make
+     * the solved preview out of the tiles of a puzzle before they are
+     * finished.
+     * @param atlas The atlas of the first grid.
+     * @param to The grid to cut for.
+     * @return The atlas of the other grid.
+     */
 
-        return resizedBitmap;
+    public TileAtlas regroupTiles(TileAtlas atlas, GameGrid to){
+        int width = atlas.getCellWidth() * atlas.getColumns();
+        int height = atlas.getCellHeight() * atlas.getRows();
+        Bitmap scaled = drawScaled(atlas.getBitmap(), new Rect(0, 0, width,
+                height), PhotoOrientation.asStored(width, height),
+                to.getTileWidth() * to.getColumns(),
+                to.getTileHeight() * to.getRows());
+        return new TileAtlas(scaled, to);
     }
 
     /**
@@ -0,0 +1,180 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+/**
+ * <h1>PhotoOrientation</h1>
+ * How a photo is turned from the way it is stored to the way it is
+ * shown in the grid. The EXIF orientation is applied first, then photos
+ * that are still in landscape form are turned a quarter clockwise so
+ * the grid is always filled in portrait. The transform is a mirroring
+ * of the stored photo followed by a clockwise rotation, so it can be
+ * folded into the draw that scales the pixels.
+ * <p>
+ * flipped - Says if the stored photo is mirrored left to right first.
+ * <p>
+ * rotation - The clockwise rotation after the mirroring, in degrees,
+ * 0, 90, 180 or 270.
+ * <p>
+ * storedWidth, storedHeight - The size of the photo as stored.
+ *
+ */
+
+public final class PhotoOrientation {
+
+    static final int EXIF_NORMAL = 1;
+    static final int EXIF_FLIP_HORIZONTAL = 2;
+    static final int EXIF_ROTATE_180 = 3;
+    static final int EXIF_FLIP_VERTICAL = 4;
+    static final int EXIF_TRANSPOSE = 5;
+    static final int EXIF_ROTATE_90 = 6;
+    static final int EXIF_TRANSVERSE = 7;
+    static final int EXIF_ROTATE_270 = 8;
+
+    private boolean flipped;
+    private int rotation;
+    private int storedWidth;
+    private int storedHeight;
+
+    /**
+     * Standard constructor.
+     * @param flipped Says if the stored photo is mirrored first.
+     * @param rotation The clockwise rotation in degrees.
+     * @param storedWidth The width of the photo as stored.
+     * @param storedHeight The height of the photo as stored.
+     */
+
+    private PhotoOrientation(boolean flipped, int rotation, int storedWidth,
+                             int storedHeight){
+        this.flipped = flipped;
+        this.rotation = rotation;
+        this.storedWidth = storedWidth;
+        this.storedHeight = storedHeight;
+    }
+
+    /**
+     * Makes the orientation of a photo from its EXIF orientation. Unknown
+     * values are taken as EXIF_NORMAL.
+     * @param exifOrientation The EXIF orientation tag, 1 to 8.
+     * @param storedWidth The width of the photo as stored.
+     * @param storedHeight The height of the photo as stored.
+     * @return The orientation.
+     */
+
+    public static PhotoOrientation fromExif(int exifOrientation,
+                                            int storedWidth,
+                                            int storedHeight){
+        boolean flipped = exifOrientation == EXIF_FLIP_HORIZONTAL
+                || exifOrientation == EXIF_FLIP_VERTICAL
+                || exifOrientation == EXIF_TRANSPOSE
+                || exifOrientation == EXIF_TRANSVERSE;
+        int rotation;
+        switch (exifOrientation){
+            case EXIF_ROTATE_180:
+            case EXIF_FLIP_VERTICAL:
+                rotation = 180;
+                break;
+            case EXIF_ROTATE_90:
+            case EXIF_TRANSVERSE:
+                rotation = 90;
+                break;
+            case EXIF_ROTATE_270:
+            case EXIF_TRANSPOSE:
+                rotation = 270;
+                break;
+            default:
+                rotation = 0;
+        }
+
+        boolean swapped = rotation % 180 != 0;
+        int width = swapped ? storedHeight : storedWidth;
+        int height = swapped ? storedWidth : storedHeight;
+        if(width > height){
+            rotation = (rotation + 90) % 360;
+        }
+        return new PhotoOrientation(flipped, rotation, storedWidth,
+                storedHeight);
+    }
+
+    /**
+     * Makes the orientation of a photo that is shown as stored, in any
+     * form.
+     * @param width The width of the photo.
+     * @param height The height of the photo.
+     * @return The orientation.
+     */
+
+    public static PhotoOrientation asStored(int width, int height){
+        return new PhotoOrientation(false, 0, width, height);
+    }
+
+    /**
+     * Getter.
+     * @return True if the stored photo is mirrored left to right first.
+     */
+
+    public boolean isFlipped() {
+        return flipped;
+    }
+
+    /**
+     * Getter.
+     * @return The clockwise rotation in degrees, 0, 90, 180 or 270.
+     */
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Getter.
+     * @return The width of the photo as shown.
+     */
+
+    public int getWidth() {
+        return rotation % 180 == 0 ? storedWidth : storedHeight;
+    }
+
+    /**
+     * Getter.
+     * @return The height of the photo as shown.
+     */
+
+    public int getHeight() {
+        return rotation % 180 == 0 ? storedHeight : storedWidth;
+    }
+
+    /**
+     * Maps a rectangle of the photo as shown to the rectangle of the
+     * photo as stored that holds the same pixels.
+     * @param left The left edge as shown.
+     * @param top The top edge as shown.
+     * @param right The right edge as shown, exclusive.
+     * @param bottom The bottom edge as shown, exclusive.
+     * @return The stored rectangle as {left, top, right, bottom}.
+     */
+
+    public int[] toStored(int left, int top, int right, int bottom){
+        int rect[];
+        switch (rotation){
+            case 90:
+                rect = new int[]{top, storedHeight - right, bottom,
+                        storedHeight - left};
+                break;
+            case 180:
+                rect = new int[]{storedWidth - right, storedHeight - bottom,
+                        storedWidth - left, storedHeight - top};
+                break;
+            case 270:
+                rect = new int[]{storedWidth - bottom, left,
+                        storedWidth - top, right};
+                break;
+            default:
+                rect = new int[]{left, top, right, bottom};
+        }
+        if(flipped){
+            int mirroredLeft = storedWidth - rect[2];
+            rect[2] = storedWidth - rect[0];
+            rect[0] = mirroredLeft;
+        }
+        return rect;
+    }
+}
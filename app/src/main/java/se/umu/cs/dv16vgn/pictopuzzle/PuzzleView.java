@@ -0,0 +1,765 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.view.Choreographer;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>PuzzleView</h1>
+ * A single view that draws a whole grid of tiles, instead of one view
+ * per tile. All images come from one TileAtlas, and the view only keeps
+ * the atlas cell every tile shows, so swapping two tiles is two int
+ * writes. Every tile is drawn with a source rectangle in the atlas and a
+ * destination rectangle in the view, so cells smaller than the tile are
+ * stretched to it. Grid lines and the selected marker are an overlay
+ * drawn after the images, never into them. The grid lines are made once
+ * per grid and drawn with one call per direction. The view finds the
+ * tile under a touch from the coordinates of the touch within the view,
+ * so where the view is on the screen never matters. It only
+ * invalidates the rectangles of tiles that change. Tiles and cells are
+ * indexed like in GameGrid, row * columns + column.
+ * <p>
+ * Swaps and scrambles can be animated. The images then slide to their
+ * tiles from where they were, moved by a TileMotion stepped in
+ * Choreographer frame callbacks, and are drawn above the tiles that
+ * stand still. The time from the start of every animated frame to the
+ * end of its drawing is kept in frameStats, and the time from every tap
+ * that changes the grid to the end of the drawing that shows the change
+ * in inputLatency.
+ * <p>
+ * Accessibility services see every tile as a virtual view, made by
+ * accessibilityHelper, with its row, column and selected state, and
+ * can click it like a tap.
+ * <p>
+ * rows, columns - The size of the grid.
+ * <p>
+ * tileWidth, tileHeight - The size of a tile in pixels.
+ * <p>
+ * atlas - The atlas the images are drawn from, may be null.
+ * <p>
+ * cells - The atlas cell shown on every tile, by index, -1 for none.
+ * <p>
+ * markers - Says if the tiles are drawn with markers.
+ * <p>
+ * markerWidth - The width of the markers in pixels.
+ * <p>
+ * gridLines - The end points of the lines around the tiles, first the
+ * rows + 1 horizontal lines, then the columns + 1 vertical lines.
+ * <p>
+ * markedTile - The index of the tile marked as selected, -1 if none is.
+ * <p>
+ * pressedTile - The index of the tile a touch started on, -1 if none.
+ * <p>
+ * imagePaint, markerPaint, selectedPaint - Paints of the images, the
+ * markers and the marker of the selected tile.
+ * <p>
+ * source, destination, clip - Rectangles reused when drawing.
+ * <p>
+ * motion - The movement of the animated images.
+ * <p>
+ * frameStats - The times of the latest animated frames.
+ * <p>
+ * animating - Says if a frame callback is posted.
+ * <p>
+ * frameStart - The start of the animated frame being drawn in
+ * nanoseconds, 0 if none is.
+ * <p>
+ * frameCallback - Steps the animation once a frame.
+ * <p>
+ * inputLatency - The times from the latest taps to their feedback.
+ * <p>
+ * tapTime - The uptime in milliseconds of the tap whose feedback is not
+ * drawn yet, 0 if none.
+ * <p>
+ * changed - Says if the view changed since the tap being handled.
+ * <p>
+ * SWAP_DURATION, SCRAMBLE_DURATION - How long the images of a swap and
+ * of a scramble move, in nanoseconds.
+ * <p>
+ * SCRAMBLE_SPREAD - The time between the first and the last image of a
+ * scramble starting to move, in nanoseconds.
+ * <p>
+ * FRAME_STATS_SIZE - The amount of frame and tap times kept.
+ * <p>
+ * listener - Told about taps on tiles.
+ * <p>
+ * accessibilityHelper - Exposes the tiles to accessibility services.
+ *
+ */
+
+public class PuzzleView extends View {
+
+    private int rows = 0;
+    private int columns = 0;
+    private int tileWidth = 0;
+    private int tileHeight = 0;
+    private TileAtlas atlas;
+    private int cells[] = new int[0];
+    private boolean markers = false;
+    private int markerWidth = 0;
+    private float gridLines[] = new float[0];
+    private int markedTile = -1;
+    private int pressedTile = -1;
+    private Paint imagePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private Paint markerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private Paint selectedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private Rect source = new Rect();
+    private Rect destination = new Rect();
+    private Rect clip = new Rect();
+    private TileMotion motion = new TileMotion();
+    private FrameStats frameStats = new FrameStats(FRAME_STATS_SIZE);
+    private boolean animating = false;
+    private long frameStart = 0;
+    private Choreographer.FrameCallback frameCallback =
+            new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if(stepAnimation(frameTimeNanos)){
+                Choreographer.getInstance().postFrameCallback(this);
+            }else{
+                animating = false;
+            }
+        }
+    };
+    private FrameStats inputLatency = new FrameStats(FRAME_STATS_SIZE);
+    private long tapTime = 0;
+    private boolean changed = false;
+    static final long SWAP_DURATION = 150000000L;
+    static final long SCRAMBLE_DURATION = 350000000L;
+    static final long SCRAMBLE_SPREAD = 600000000L;
+    private static final int FRAME_STATS_SIZE = 1024;
+    private OnTileClickListener listener;
+    private TileAccessibilityHelper accessibilityHelper;
+
+    /**
+     * Told when a tile of a PuzzleView is tapped.
+     */
+
+    public interface OnTileClickListener {
+
+        /**
+         * Called when a tile is tapped.
+         * @param row The row of the tile.
+         * @param column The column of the tile.
+         */
+
+        void onTileClick(int row, int column);
+    }
+
+    /**
+     * Standard constructor.
+     * @param context The Context of the view.
+     */
+
+    public PuzzleView(Context context){
+        super(context);
+        markerPaint.setColor(Color.BLACK);
+        selectedPaint.setColor(Color.GREEN);
+        accessibilityHelper = new TileAccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+        setFocusable(true);
+    }
+
+    /**
+     * Sets the size of the grid and its tiles and removes all images.
+     * Every tile then shows no cell.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param tileWidth The width of a tile in pixels.
+     * @param tileHeight The height of a tile in pixels.
+     */
+
+    public void setGrid(int rows, int columns, int tileWidth,
+                        int tileHeight){
+        this.rows = rows;
+        this.columns = columns;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.cells = new int[rows * columns];
+        Arrays.fill(cells, -1);
+        makeGridLines();
+        cancelAnimation();
+        motion.reset(rows * columns);
+        this.markedTile = -1;
+        this.pressedTile = -1;
+        accessibilityHelper.invalidateRoot();
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Makes the end points of the grid lines, four floats a line.
+     */
+
+    private void makeGridLines(){
+        int width = columns * tileWidth;
+        int height = rows * tileHeight;
+        gridLines = new float[(rows + columns + 2) * 4];
+        int n = 0;
+        for(int i = 0; i<=rows; i++){
+            gridLines[n++] = 0;
+            gridLines[n++] = i * tileHeight;
+            gridLines[n++] = width;
+            gridLines[n++] = i * tileHeight;
+        }
+        for(int j = 0; j<=columns; j++){
+            gridLines[n++] = j * tileWidth;
+            gridLines[n++] = 0;
+            gridLines[n++] = j * tileWidth;
+            gridLines[n++] = height;
+        }
+    }
+
+    /**
+     * Sets the atlas the images are drawn from. The cells of the tiles
+     * are kept, so an atlas can be replaced by one with the same cells
+     * at another resolution.
+     * @param atlas The atlas, may be null.
+     */
+
+    public void setAtlas(TileAtlas atlas){
+        this.atlas = atlas;
+        invalidate();
+    }
+
+    /**
+     * Getter.
+     * @return The atlas the images are drawn from.
+     */
+
+    public TileAtlas getAtlas(){
+        return atlas;
+    }
+
+    /**
+     * Sets the atlas cell a tile shows.
+     * @param index The index of the tile.
+     * @param cell The index of the cell, -1 to show nothing.
+     */
+
+    public void setCell(int index, int cell){
+        cells[index] = cell;
+        invalidateTile(index);
+    }
+
+    /**
+     * Getter.
+     * @param index The index of a tile.
+     * @return The atlas cell the tile shows, -1 for none.
+     */
+
+    public int getCell(int index){
+        return cells[index];
+    }
+
+    /**
+     * Swaps the images of two tiles at once. A marker set as selected
+     * follows its image, and the images stop moving.
+     * @param index1 The index of a tile.
+     * @param index2 The index of the other tile.
+     */
+
+    public void swapCells(int index1, int index2){
+        motion.stop(index1);
+        motion.stop(index2);
+        exchangeCells(index1, index2);
+    }
+
+    /**
+     * Swaps the images of two tiles and lets them slide to their new
+     * tiles from where they are drawn. A marker set as selected follows
+     * its image.
+     * @param index1 The index of a tile.
+     * @param index2 The index of the other tile.
+     */
+
+    public void animateSwap(int index1, int index2){
+        exchangeCells(index1, index2);
+        motion.swap(index1, index2,
+                (index2 % columns - index1 % columns) * tileWidth,
+                (index2 / columns - index1 / columns) * tileHeight,
+                System.nanoTime(), SWAP_DURATION);
+        startAnimation();
+    }
+
+    /**
+     * Lets the image of a tile slide to it from another tile.
+     * @param index The index of the tile.
+     * @param from The index of the tile the image starts on.
+     * @param delay The nanoseconds until the image starts to move.
+     * @param duration The nanoseconds the image moves.
+     */
+
+    public void animateFrom(int index, int from, long delay, long duration){
+        motion.start(index, (from % columns - index % columns) * tileWidth,
+                (from / columns - index / columns) * tileHeight,
+                System.nanoTime() + delay, duration);
+        startAnimation();
+    }
+
+    /**
+     * Stops every moving image at its tile.
+     */
+
+    public void cancelAnimation(){
+        if(animating){
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+            animating = false;
+        }
+        if(motion.getMovingCount() > 0){
+            motion.stopAll();
+            invalidate();
+        }
+    }
+
+    /**
+     * Posts a frame callback unless one is posted.
+     */
+
+    private void startAnimation(){
+        changed = true;
+        if(!animating){
+            animating = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+        invalidate();
+    }
+
+    /**
+     * Moves the images to where they are at the start of a frame and
+     * draws the view again.
+     * @param frameTimeNanos The start of the frame, in the time base of
+     *                       System.nanoTime().
+     * @return True if any image is still moving.
+     */
+
+    boolean stepAnimation(long frameTimeNanos){
+        frameStart = frameTimeNanos;
+        invalidate();
+        return motion.step(frameTimeNanos);
+    }
+
+    /**
+     * Getter.
+     * @return True if any image is moving.
+     */
+
+    public boolean isAnimating(){
+        return motion.getMovingCount() > 0;
+    }
+
+    /**
+     * Getter.
+     * @return The times of the latest animated frames.
+     */
+
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Getter.
+     * @return The times from the latest taps that changed the grid to
+     * the end of the drawing that shows the change.
+     */
+
+    public FrameStats getInputLatency() {
+        return inputLatency;
+    }
+
+    /**
+     * Swaps the images of two tiles. A marker set as selected follows
+     * its image.
+     * @param index1 The index of a tile.
+     * @param index2 The index of the other tile.
+     */
+
+    private void exchangeCells(int index1, int index2){
+        int temp = cells[index1];
+        cells[index1] = cells[index2];
+        cells[index2] = temp;
+        if(markedTile == index1){
+            markedTile = index2;
+        }else if(markedTile == index2){
+            markedTile = index1;
+        }
+        invalidateTile(index1);
+        invalidateTile(index2);
+    }
+
+    /**
+     * Sets if the tiles are drawn with markers.
+     * @param markers True to draw markers.
+     * @param markerWidth The width of the markers in pixels.
+     */
+
+    public void setMarkers(boolean markers, int markerWidth){
+        this.markers = markers;
+        this.markerWidth = markerWidth;
+        markerPaint.setStrokeWidth(markerWidth);
+        selectedPaint.setStrokeWidth(markerWidth);
+        invalidate();
+    }
+
+    /**
+     * Marks a tile as selected, unmarking the one that was.
+     * @param index The index of the tile, -1 to unmark.
+     */
+
+    public void setMarkedTile(int index){
+        int old = markedTile;
+        markedTile = index;
+        if(old != -1){
+            invalidateTile(old);
+            accessibilityHelper.invalidateVirtualView(old);
+        }
+        if(index != -1){
+            invalidateTile(index);
+            accessibilityHelper.invalidateVirtualView(index);
+        }
+    }
+
+    /**
+     * Getter.
+     * @return The index of the tile marked as selected, -1 if none is.
+     */
+
+    public int getMarkedTile(){
+        return markedTile;
+    }
+
+    /**
+     * Setter.
+     * @param listener Told about taps on tiles, may be null.
+     */
+
+    public void setOnTileClickListener(OnTileClickListener listener){
+        this.listener = listener;
+    }
+
+    /**
+     * Finds the tile at a point of the view.
+     * @param x The x coordinate in the view.
+     * @param y The y coordinate in the view.
+     * @return The index of the tile, -1 if the point is outside the grid.
+     */
+
+    public int tileAt(float x, float y){
+        if(x < 0 || y < 0 || tileWidth <= 0 || tileHeight <= 0){
+            return -1;
+        }
+        int column = (int) x / tileWidth;
+        int row = (int) y / tileHeight;
+        if(column >= columns || row >= rows){
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    /**
+     * Invalidates the rectangle of a tile, with room for its markers.
+     * @param index The index of the tile.
+     */
+
+    private void invalidateTile(int index){
+        changed = true;
+        int left = index % columns * tileWidth;
+        int top = index / columns * tileHeight;
+        invalidate(left - markerWidth, top - markerWidth,
+                left + tileWidth + markerWidth,
+                top + tileHeight + markerWidth);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(
+                resolveSize(columns * tileWidth, widthMeasureSpec),
+                resolveSize(rows * tileHeight, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        cancelAnimation();
+    }
+
+    /**
+     * Draws the tiles that stand still within the clip bounds, then the
+     * moving images, then the grid lines around them and the marker of
+     * the selected tile on top. The time of an animated frame and of the
+     * feedback of a tap is kept.
+     * @param canvas The canvas to draw on.
+     */
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if(tileWidth <= 0 || tileHeight <= 0){
+            return;
+        }
+        canvas.getClipBounds(clip);
+        int firstColumn = Math.max(0, (clip.left - markerWidth) / tileWidth);
+        int lastColumn = Math.min(columns - 1,
+                (clip.right + markerWidth) / tileWidth);
+        int firstRow = Math.max(0, (clip.top - markerWidth) / tileHeight);
+        int lastRow = Math.min(rows - 1,
+                (clip.bottom + markerWidth) / tileHeight);
+
+        if(atlas != null){
+            Bitmap bitmap = atlas.getBitmap();
+            for(int i = firstRow; i<=lastRow; i++){
+                for(int j = firstColumn; j<=lastColumn; j++){
+                    int index = i * columns + j;
+                    int cell = cells[index];
+                    if(cell != -1 && !motion.isMoving(index)){
+                        atlas.getCellRect(cell, source);
+                        destination.set(j * tileWidth, i * tileHeight,
+                                (j + 1) * tileWidth, (i + 1) * tileHeight);
+                        canvas.drawBitmap(bitmap, source, destination,
+                                imagePaint);
+                    }
+                }
+            }
+            for(int k = 0; k<motion.getMovingCount(); k++){
+                int index = motion.getMovingTile(k);
+                int cell = cells[index];
+                if(cell != -1){
+                    int left = index % columns * tileWidth
+                            + (int) motion.getOffsetX(index);
+                    int top = index / columns * tileHeight
+                            + (int) motion.getOffsetY(index);
+                    atlas.getCellRect(cell, source);
+                    destination.set(left, top, left + tileWidth,
+                            top + tileHeight);
+                    canvas.drawBitmap(bitmap, source, destination,
+                            imagePaint);
+                }
+            }
+        }
+        if(markers && firstRow <= lastRow && firstColumn <= lastColumn){
+            drawMarkers(canvas, firstRow, lastRow, firstColumn,
+                    lastColumn);
+        }
+        if(frameStart != 0){
+            frameStats.record(System.nanoTime() - frameStart);
+            frameStart = 0;
+        }
+        if(tapTime != 0){
+            inputLatency.record((SystemClock.uptimeMillis() - tapTime)
+                    * 1000000L);
+            tapTime = 0;
+        }
+    }
+
+    /**
+     * Draws the grid lines around some tiles and the marker of the
+     * selected tile on top.
+     * @param canvas The canvas to draw on.
+     * @param firstRow The first row to draw lines around.
+     * @param lastRow The last row to draw lines around.
+     * @param firstColumn The first column to draw lines around.
+     * @param lastColumn The last column to draw lines around.
+     */
+
+    private void drawMarkers(Canvas canvas, int firstRow, int lastRow,
+                             int firstColumn, int lastColumn){
+        canvas.drawLines(gridLines, firstRow * 4,
+                (lastRow - firstRow + 2) * 4, markerPaint);
+        canvas.drawLines(gridLines, (rows + 1 + firstColumn) * 4,
+                (lastColumn - firstColumn + 2) * 4, markerPaint);
+        if(markedTile != -1){
+            drawMarker(canvas, markedTile / columns, markedTile % columns,
+                    selectedPaint);
+        }
+    }
+
+    /**
+     * Draws the border of a tile, over the grid lines.
+     * @param canvas The canvas to draw on.
+     * @param row The row of the tile.
+     * @param column The column of the tile.
+     * @param paint The paint of the border.
+     */
+
+    private void drawMarker(Canvas canvas, int row, int column, Paint paint){
+        int left = column * tileWidth;
+        int top = row * tileHeight;
+        int right = left + tileWidth;
+        int bottom = top + tileHeight;
+        canvas.drawLine(left, top, left, bottom, paint);
+        canvas.drawLine(left, top, right, top, paint);
+        canvas.drawLine(right, top, right, bottom, paint);
+        canvas.drawLine(left, bottom, right, bottom, paint);
+    }
+
+    /**
+     * Finds the tile a tap starts and ends on, and clicks it if they
+     * are the same. The time of a click that changes the grid is kept
+     * until the change is drawn.
+     * @param event The touch event, in the coordinates of the view.
+     * @return True if the event was on the grid.
+     */
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()){
+            case MotionEvent.ACTION_DOWN:
+                pressedTile = tileAt(event.getX(), event.getY());
+                return pressedTile != -1;
+            case MotionEvent.ACTION_UP:
+                if(pressedTile != -1
+                        && pressedTile == tileAt(event.getX(), event.getY())){
+                    changed = false;
+                    performClick();
+                    if(changed){
+                        tapTime = event.getEventTime();
+                    }
+                }
+                pressedTile = -1;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                pressedTile = -1;
+                return true;
+            default:
+                return pressedTile != -1;
+        }
+    }
+
+    /**
+     * Clicks the pressed tile.
+     * @return True.
+     */
+
+    @Override
+    public boolean performClick() {
+        super.performClick();
+        if(pressedTile != -1){
+            clickTile(pressedTile);
+        }
+        return true;
+    }
+
+    /**
+     * Tells the listener that a tile was clicked.
+     * @param index The index of the tile.
+     */
+
+    private void clickTile(int index){
+        if(listener != null){
+            listener.onTileClick(index / columns, index % columns);
+        }
+    }
+
+    /**
+     * Lets accessibility services explore the tiles by touch.
+     * @param event The hover event.
+     * @return True if the event was handled.
+     */
+
+    @Override
+    public boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event)
+                || super.dispatchHoverEvent(event);
+    }
+
+    /**
+     * Lets keyboards and switches move between the tiles.
+     * @param event The key event.
+     * @return True if the event was handled.
+     */
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return accessibilityHelper.dispatchKeyEvent(event)
+                || super.dispatchKeyEvent(event);
+    }
+
+    /**
+     * Moves the keyboard focus to a tile when the view gets it.
+     * @param gainFocus True if the view got the focus.
+     * @param direction The direction the focus moved in.
+     * @param previouslyFocusedRect The rectangle focused before, may be
+     *                              null.
+     */
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction,
+                                  Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        accessibilityHelper.onFocusChanged(gainFocus, direction,
+                previouslyFocusedRect);
+    }
+
+    /**
+     * <h1>TileAccessibilityHelper</h1>
+     * Makes one virtual view per tile, indexed like the tiles, that
+     * accessibility services can read and click.
+     */
+
+    private class TileAccessibilityHelper extends ExploreByTouchHelper {
+
+        /**
+         * Standard constructor.
+         */
+
+        TileAccessibilityHelper(){
+            super(PuzzleView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int tile = tileAt(x, y);
+            return tile == -1 ? INVALID_ID : tile;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            for(int i = 0; i<rows * columns; i++){
+                virtualViewIds.add(i);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId,
+                AccessibilityNodeInfoCompat node) {
+            int row = virtualViewId / columns;
+            int column = virtualViewId % columns;
+            int left = column * tileWidth;
+            int top = row * tileHeight;
+            node.setContentDescription(getContext().getString(
+                    R.string.tile_description, row + 1, column + 1));
+            node.setBoundsInParent(new Rect(left, top, left + tileWidth,
+                    top + tileHeight));
+            node.setSelected(virtualViewId == markedTile);
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId,
+                int action, Bundle arguments) {
+            if(action != AccessibilityNodeInfoCompat.ACTION_CLICK){
+                return false;
+            }
+            clickTile(virtualViewId);
+            sendEventForVirtualView(virtualViewId,
+                    AccessibilityEvent.TYPE_VIEW_CLICKED);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+/**
+ * <h1>TileAtlas</h1>
+ * All tiles of a grid packed into one bitmap, so a grid costs one
+ * bitmap instead of one per tile. The tiles lie in the bitmap in solved
+ * order, so the atlas is the picture of the solved grid and the cell of
+ * image source i is at column i % columns and row i / columns. Cells
+ * may be smaller than the tiles of the grid, like for placeholders, and
+ * are then drawn scaled.
+ * <p>
+ * bitmap - The bitmap holding the cells.
+ * <p>
+ * rows, columns - The amount of cells down and across.
+ * <p>
+ * cellWidth, cellHeight - The size of a cell in pixels.
+ *
+ */
+
+public final class TileAtlas {
+
+    private Bitmap bitmap;
+    private int rows;
+    private int columns;
+    private int cellWidth;
+    private int cellHeight;
+
+    /**
+     * Standard constructor.
+     * @param bitmap The bitmap holding the cells, at least
+     *               cellWidth * columns by cellHeight * rows.
+     * @param rows The amount of cells down.
+     * @param columns The amount of cells across.
+     * @param cellWidth The width of a cell in pixels.
+     * @param cellHeight The height of a cell in pixels.
+     */
+
+    public TileAtlas(Bitmap bitmap, int rows, int columns, int cellWidth,
+                     int cellHeight){
+        this.bitmap = bitmap;
+        this.rows = rows;
+        this.columns = columns;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+    }
+
+    /**
+     * Constructor for an atlas with the cells of a grid.
+     * @param bitmap The bitmap holding the cells.
+     * @param gameGrid Contains the grid size and tile sizes.
+     */
+
+    public TileAtlas(Bitmap bitmap, GameGrid gameGrid){
+        this(bitmap, gameGrid.getRows(), gameGrid.getColumns(),
+                gameGrid.getTileWidth(), gameGrid.getTileHeight());
+    }
+
+    /**
+     * Gets the rectangle of a cell in the bitmap.
+     * @param cell The index of the cell, row * columns + column.
+     * @param rect Set to the rectangle of the cell.
+     */
+
+    public void getCellRect(int cell, Rect rect){
+        int left = cell % columns * cellWidth;
+        int top = cell / columns * cellHeight;
+        rect.set(left, top, left + cellWidth, top + cellHeight);
+    }
+
+    /**
+     * Makes the same atlas with the cells in another bitmap, like a copy
+     * in another config.
+     * @param other The other bitmap.
+     * @return The new atlas.
+     */
+
+    public TileAtlas withBitmap(Bitmap other){
+        return new TileAtlas(other, rows, columns, cellWidth, cellHeight);
+    }
+
+    /**
+     * Getter.
+     * @return The bitmap holding the cells.
+     */
+
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of cells down.
+     */
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of cells across.
+     */
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Getter.
+     * @return The width of a cell in pixels.
+     */
+
+    public int getCellWidth() {
+        return cellWidth;
+    }
+
+    /**
+     * Getter.
+     * @return The height of a cell in pixels.
+     */
+
+    public int getCellHeight() {
+        return cellHeight;
+    }
+}
@@ -0,0 +1,236 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>TileCache</h1>
+ * Process wide LRU cache of the tile atlases made from photos, so a
+ * restored puzzle and the solved preview can reuse decoded pixels
+ * instead of going back to disk. Sized in bytes as a part of the memory
+ * class of the device and trimmed when the system asks for memory.
+ * Cached atlases are shared, so they are never recycled by the cache or
+ * while cached. The atlases of a photo that is done with are removed
+ * with remove and may then be reused.
+ * <p>
+ * instance - The cache of the process.
+ * <p>
+ * tiles - The tile atlases by Key.
+ *
+ */
+
+public class TileCache implements ComponentCallbacks2 {
+
+    private static final int MEMORY_CLASS_FRACTION = 4;
+
+    private static TileCache instance;
+
+    private LruCache<Key, TileAtlas> tiles;
+
+    /**
+     * Standard constructor.
+     * @param maxBytes The most bytes of tiles to hold.
+     */
+
+    TileCache(int maxBytes){
+        this.tiles = new LruCache<Key, TileAtlas>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, TileAtlas value) {
+                return byteCount(value);
+            }
+        };
+    }
+
+    /**
+     * Gets the cache of the process, creating it the first time. It
+     * holds a quarter of the memory class of the device.
+     * @param context Any Context of the app.
+     * @return The cache.
+     */
+
+    public static synchronized TileCache getInstance(Context context){
+        if(instance == null){
+            Context application = context.getApplicationContext();
+            ActivityManager activityManager = (ActivityManager)
+                    application.getSystemService(Context.ACTIVITY_SERVICE);
+            int maxBytes = activityManager.getMemoryClass() * 1024 * 1024
+                    / MEMORY_CLASS_FRACTION;
+            instance = new TileCache(maxBytes);
+            application.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Counts the bytes of a tile atlas.
+     * @param atlas The atlas.
+     * @return The byte count of its bitmap.
+     */
+
+    static int byteCount(TileAtlas atlas){
+        return atlas.getBitmap().getByteCount();
+    }
+
+    /**
+     * Gets the tiles of a photo cut for a grid.
+     * @param path The path to the photo.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @return The shared atlas of the tiles, or null if it is not cached.
+     */
+
+    public TileAtlas get(String path, GameGrid gameGrid){
+        return tiles.get(new Key(path, gameGrid));
+    }
+
+    /**
+     * Caches the tiles of a photo cut for a grid.
+     * @param path The path to the photo.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @param atlas The atlas of the tiles, shared from now on.
+     */
+
+    public void put(String path, GameGrid gameGrid, TileAtlas atlas){
+        tiles.put(new Key(path, gameGrid), atlas);
+    }
+
+    /**
+     * Removes all tiles of a photo.
+     * @param path The path to the photo.
+     * @return The removed tile atlases.
+     */
+
+    public List<TileAtlas> remove(String path){
+        List<TileAtlas> removed = new ArrayList<>();
+        for(Key key : tiles.snapshot().keySet()){
+            if(key.path.equals(path)){
+                TileAtlas atlas = tiles.remove(key);
+                if(atlas != null){
+                    removed.add(atlas);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Empties the cache.
+     */
+
+    public void clear(){
+        tiles.evictAll();
+    }
+
+    /**
+     * Getter.
+     * @return The bytes of tiles held.
+     */
+
+    public int getByteCount(){
+        return tiles.size();
+    }
+
+    /**
+     * Getter.
+     * @return The most bytes of tiles held.
+     */
+
+    public int getMaxByteCount(){
+        return tiles.maxSize();
+    }
+
+    /**
+     * Empties the cache when the app is in the background and the
+     * system is short of memory, halves it when the app is running
+     * short.
+     * @param level The trim level.
+     */
+
+    @Override
+    public void onTrimMemory(int level) {
+        if(level >= TRIM_MEMORY_BACKGROUND){
+            tiles.evictAll();
+        }else if(level >= TRIM_MEMORY_RUNNING_LOW){
+            tiles.trimToSize(tiles.size() / 2);
+        }
+    }
+
+    /**
+     * Empties the cache.
+     */
+
+    @Override
+    public void onLowMemory() {
+        tiles.evictAll();
+    }
+
+    /**
+     * Not used.
+     * @param configuration The new configuration.
+     */
+
+    @Override
+    public void onConfigurationChanged(Configuration configuration) {
+    }
+
+    /**
+     * <h1>Key</h1>
+     * Identifies the tiles of a photo cut for a grid.
+     * <p>
+     * path - The path to the photo.
+     * <p>
+     * rows, columns - The grid size.
+     * <p>
+     * tileWidth, tileHeight - The tile size.
+     *
+     */
+
+    static final class Key {
+
+        private String path;
+        private int rows;
+        private int columns;
+        private int tileWidth;
+        private int tileHeight;
+
+        /**
+         * Standard constructor.
+         * @param path The path to the photo.
+         * @param gameGrid Contains the grid size and tile sizes.
+         */
+
+        Key(String path, GameGrid gameGrid){
+            this.path = path;
+            this.rows = gameGrid.getRows();
+            this.columns = gameGrid.getColumns();
+            this.tileWidth = gameGrid.getTileWidth();
+            this.tileHeight = gameGrid.getTileHeight();
+        }
+
+        @Override
+        public boolean equals(Object object){
+            if(!(object instanceof Key)){
+                return false;
+            }
+            Key other = (Key) object;
+            return path.equals(other.path) && rows == other.rows
+                    && columns == other.columns
+                    && tileWidth == other.tileWidth
+                    && tileHeight == other.tileHeight;
+        }
+
+        @Override
+        public int hashCode(){
+            int hash = path.hashCode();
+            hash = 31 * hash + rows;
+            hash = 31 * hash + columns;
+            hash = 31 * hash + tileWidth;
+            return 31 * hash + tileHeight;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import android.graphics.Bitmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <h1>TileDiskCache</h1>
+ * Keeps the tiles made from photos on disk, so a puzzle restored after
+ * the process died is read back instead of decoded, rotated and split
+ * again. Every entry is one file holding a small header and the raw
+ * RGB_565 pixels of the TileAtlas of the tiles. Files are written to a
+ * temporary name and renamed, so a half written file is never read, and
+ * read through a memory mapping straight into a new atlas in one copy.
+ * <p>
+ * directory - The directory of the entries.
+ *
+ */
+
+public class TileDiskCache {
+
+    private static final int FILE_MAGIC = 0x54494C02;
+    private static final int HEADER_INTS = 5;
+    private static final int BYTES_PER_PIXEL = 2;
+    private static final String SUFFIX = ".tiles";
+
+    private File directory;
+
+    /**
+     * Standard constructor.
+     * @param directory The directory to keep the entries in, created if
+     *                  it does not exist.
+     */
+
+    public TileDiskCache(File directory){
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the file of an entry.
+     * @param path The path to the photo.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @return The file, which may not exist.
+     */
+
+    File getFile(String path, GameGrid gameGrid){
+        return new File(directory, new File(path).getName() + "-"
+                + gameGrid.getRows() + "x" + gameGrid.getColumns() + "-"
+                + gameGrid.getTileWidth() + "x" + gameGrid.getTileHeight()
+                + SUFFIX);
+    }
+
+    /**
+     * Reads the tiles of a photo cut for a grid.
+     * @param path The path to the photo.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @return The atlas of the tiles, or null if there is no entry or it
+     * could not be read.
+     */
+
+    public TileAtlas read(String path, GameGrid gameGrid){
+        File file = getFile(path, gameGrid);
+        if(!file.isFile()){
+            return null;
+        }
+        int columns = gameGrid.getColumns();
+        int rows = gameGrid.getRows();
+        int tileWidth = gameGrid.getTileWidth();
+        int tileHeight = gameGrid.getTileHeight();
+        long size = entrySize(gameGrid);
+        Bitmap bitmap = null;
+
+        try{
+            RandomAccessFile in = new RandomAccessFile(file, "r");
+            try{
+                FileChannel channel = in.getChannel();
+                if(channel.size() != size){
+                    return null;
+                }
+                MappedByteBuffer buffer = channel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, size);
+                if(buffer.getInt() != FILE_MAGIC
+                        || buffer.getInt() != tileWidth
+                        || buffer.getInt() != tileHeight
+                        || buffer.getInt() != rows
+                        || buffer.getInt() != columns){
+                    return null;
+                }
+
+                bitmap = Bitmap.createBitmap(tileWidth * columns,
+                        tileHeight * rows, Bitmap.Config.RGB_565);
+                bitmap.copyPixelsFromBuffer(buffer);
+                return new TileAtlas(bitmap, gameGrid);
+            }finally {
+                in.close();
+            }
+        }catch (IOException | RuntimeException | OutOfMemoryError e){
+            if(bitmap != null){
+                bitmap.recycle();
+            }
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the tiles of a photo cut for a grid, replacing any entry
+     * there was. Atlases of other configs are converted to RGB_565.
+     * @param path The path to the photo.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @param atlas The atlas of the tiles.
+     * @return True if the entry was written.
+     */
+
+    public boolean write(String path, GameGrid gameGrid, TileAtlas atlas){
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            return false;
+        }
+        File file = getFile(path, gameGrid);
+        File temp = new File(directory, file.getName() + ".tmp");
+        long size = entrySize(gameGrid);
+
+        try{
+            RandomAccessFile out = new RandomAccessFile(temp, "rw");
+            try{
+                out.setLength(size);
+                MappedByteBuffer buffer = out.getChannel().map(
+                        FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(FILE_MAGIC);
+                buffer.putInt(gameGrid.getTileWidth());
+                buffer.putInt(gameGrid.getTileHeight());
+                buffer.putInt(gameGrid.getRows());
+                buffer.putInt(gameGrid.getColumns());
+
+                if(!putAtlas(buffer, atlas.getBitmap(), gameGrid)){
+                    temp.delete();
+                    return false;
+                }
+                buffer.force();
+            }finally {
+                out.close();
+            }
+        }catch (IOException | RuntimeException | OutOfMemoryError e){
+            temp.delete();
+            return false;
+        }
+        return temp.renameTo(file);
+    }
+
+    /**
+     * Puts the pixels of an atlas in the buffer as RGB_565.
+     * @param buffer The buffer to put in.
+     * @param bitmap The bitmap of the atlas.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @return False if the bitmap is not of the grid area.
+     */
+
+    private boolean putAtlas(ByteBuffer buffer, Bitmap bitmap,
+                             GameGrid gameGrid){
+        if(bitmap.getWidth() != gameGrid.getTileWidth()
+                * gameGrid.getColumns()
+                || bitmap.getHeight() != gameGrid.getTileHeight()
+                * gameGrid.getRows()){
+            return false;
+        }
+        if(bitmap.getConfig() == Bitmap.Config.RGB_565){
+            bitmap.copyPixelsToBuffer(buffer);
+            return true;
+        }
+        Bitmap converted = bitmap.copy(Bitmap.Config.RGB_565, false);
+        if(converted == null){
+            return false;
+        }
+        converted.copyPixelsToBuffer(buffer);
+        converted.recycle();
+        return true;
+    }
+
+    /**
+     * Deletes all entries and temporary files. An entry being written
+     * at the same time may be left behind, so call it on the thread
+     * that writes.
+     */
+
+    public void clear(){
+        File[] files = directory.listFiles();
+        if(files == null){
+            return;
+        }
+        for(File file : files){
+            file.delete();
+        }
+    }
+
+    /**
+     * Counts the bytes of an entry.
+     * @param gameGrid Contains the grid size and tile sizes.
+     * @return The size of the file of the entry.
+     */
+
+    static long entrySize(GameGrid gameGrid){
+        return HEADER_INTS * 4L + (long) gameGrid.getRows()
+                * gameGrid.getColumns() * gameGrid.getTileWidth()
+                * gameGrid.getTileHeight() * BYTES_PER_PIXEL;
+    }
+}
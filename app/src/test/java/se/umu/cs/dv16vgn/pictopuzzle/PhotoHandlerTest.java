@@ -0,0 +1,44 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PhotoHandlerTest {
+
+    @Test
+    public void testThatSmallPhotoIsNotSubsampled(){
+        assertEquals(1, PhotoHandler.calculateInSampleSize(1080, 1700,
+                1080, 1700));
+        assertEquals(1, PhotoHandler.calculateInSampleSize(500, 800,
+                1080, 1700));
+    }
+
+    @Test
+    public void testThatSubsampledPhotoStillCoversTarget(){
+        int sampleSize = PhotoHandler.calculateInSampleSize(3024, 4032,
+                1080, 1700);
+
+        assertEquals(2, sampleSize);
+        assertTrue(3024 / sampleSize >= 1080);
+        assertTrue(4032 / sampleSize >= 1700);
+    }
+
+    @Test
+    public void testThatLargePhotoIsSubsampledByPowerOfTwo(){
+        int sampleSize = PhotoHandler.calculateInSampleSize(6000, 8000,
+                720, 1200);
+
+        assertEquals(4, sampleSize);
+        assertTrue(6000 / (sampleSize * 2) < 720
+                || 8000 / (sampleSize * 2) < 1200);
+    }
+
+    @Test
+    public void testThatSampledRegionSizeRoundsDown(){
+        assertEquals(30, PhotoHandler.sampledSize(61, 2));
+        assertEquals(15, PhotoHandler.sampledSize(61, 4));
+        assertEquals(32, PhotoHandler.sampledSize(64, 2));
+        assertEquals(1, PhotoHandler.sampledSize(3, 4));
+    }
+}
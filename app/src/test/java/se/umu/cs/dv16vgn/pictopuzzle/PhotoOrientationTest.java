@@ -0,0 +1,91 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PhotoOrientationTest {
+
+    /**
+     * Finds the stored pixel shown at (x, y) for an EXIF orientation, as
+     * the EXIF specification describes it, before the grid turns
+     * landscape photos.
+     */
+    private int[] exifSource(int exif, int x, int y, int width, int height){
+        switch (exif){
+            case 2: return new int[]{width - 1 - x, y};
+            case 3: return new int[]{width - 1 - x, height - 1 - y};
+            case 4: return new int[]{x, height - 1 - y};
+            case 5: return new int[]{y, x};
+            case 6: return new int[]{y, height - 1 - x};
+            case 7: return new int[]{width - 1 - y, height - 1 - x};
+            case 8: return new int[]{width - 1 - y, x};
+            default: return new int[]{x, y};
+        }
+    }
+
+    private void assertMapsEveryPixel(int exif, int width, int height){
+        PhotoOrientation orientation = PhotoOrientation.fromExif(exif,
+                width, height);
+        boolean swapped = exif >= 5;
+        int exifWidth = swapped ? height : width;
+        int exifHeight = swapped ? width : height;
+        boolean turned = exifWidth > exifHeight;
+
+        assertEquals(turned ? exifHeight : exifWidth, orientation.getWidth());
+        assertEquals(turned ? exifWidth : exifHeight,
+                orientation.getHeight());
+        assertTrue(orientation.getWidth() <= orientation.getHeight());
+
+        for(int x = 0; x<orientation.getWidth(); x++){
+            for(int y = 0; y<orientation.getHeight(); y++){
+                int exifX = turned ? y : x;
+                int exifY = turned ? exifHeight - 1 - x : y;
+                int expected[] = exifSource(exif, exifX, exifY, width,
+                        height);
+                int rect[] = orientation.toStored(x, y, x + 1, y + 1);
+                assertArrayEquals("EXIF " + exif + " " + width + "x"
+                        + height + " at " + x + "," + y, new int[]{
+                        expected[0], expected[1], expected[0] + 1,
+                        expected[1] + 1}, rect);
+            }
+        }
+    }
+
+    @Test
+    public void testAllEightOrientationsOfPortraitPhoto(){
+        for(int exif = 1; exif<=8; exif++){
+            assertMapsEveryPixel(exif, 3, 5);
+        }
+    }
+
+    @Test
+    public void testAllEightOrientationsOfLandscapePhoto(){
+        for(int exif = 1; exif<=8; exif++){
+            assertMapsEveryPixel(exif, 5, 3);
+        }
+    }
+
+    @Test
+    public void testThatMissingExifTurnsLandscapeLikeBefore(){
+        PhotoOrientation orientation = PhotoOrientation.fromExif(0,
+                4032, 3024);
+
+        assertFalse(orientation.isFlipped());
+        assertEquals(90, orientation.getRotation());
+        assertArrayEquals(new int[]{100, 3024 - 400, 300, 3024 - 200},
+                orientation.toStored(200, 100, 400, 300));
+    }
+
+    @Test
+    public void testThatRectanglesKeepTheirArea(){
+        for(int exif = 1; exif<=8; exif++){
+            PhotoOrientation orientation = PhotoOrientation.fromExif(exif,
+                    4032, 3024);
+            int rect[] = orientation.toStored(10, 20, 110, 70);
+            assertEquals(100 * 50, (rect[2] - rect[0]) * (rect[3] - rect[1]));
+            assertTrue(rect[0] >= 0 && rect[1] >= 0);
+            assertTrue(rect[2] <= 4032 && rect[3] <= 3024);
+        }
+    }
+}
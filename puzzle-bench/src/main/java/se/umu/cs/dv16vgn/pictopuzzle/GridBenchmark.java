@@ -0,0 +1,63 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>GridBenchmark</h1>
+ * Benchmarks the operations of a tap: hit-testing, swapping and the
+ * solved check.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    /**
+     * Swaps a random pair of tiles.
+     * @param state The benchmark state.
+     * @return The misplaced tiles after the swap.
+     */
+
+    @Benchmark
+    public int swapTileImageSourcePositions(GridState state){
+        int i = state.next();
+        state.gameGrid.swapTileImageSourcePositions(state.positions1[i],
+                state.positions2[i]);
+        return state.gameGrid.getMisplacedTiles();
+    }
+
+    /**
+     * Checks if the scrambled grid is solved.
+     * @param state The benchmark state.
+     * @return False.
+     */
+
+    @Benchmark
+    public Boolean isPuzzleSolved(GridState state){
+        return state.gameGrid.isPuzzleSolved();
+    }
+
+    /**
+     * Finds the tile under a random pixel position.
+     * @param state The benchmark state.
+     * @return The tile position.
+     */
+
+    @Benchmark
+    public Position calculateTilePosition(GridState state){
+        int i = state.next();
+        return state.gameGrid.calculateTilePosition(state.tapsY[i],
+                state.tapsX[i]);
+    }
+}
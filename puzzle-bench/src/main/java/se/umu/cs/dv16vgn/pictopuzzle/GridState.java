@@ -0,0 +1,91 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * <h1>GridState</h1>
+ * Benchmark state shared by the benchmarks. Holds a scrambled grid of
+ * every benchmarked size, and precomputed random taps so that the
+ * benchmarks do not measure the random generator.
+ * <p>
+ * size - The grid size, a GridSize definition.
+ * <p>
+ * gameGrid - The scrambled grid.
+ * <p>
+ * imageSources - A copy of the permutation of gameGrid.
+ * <p>
+ * solver - The swap solver of gameGrid. Benchmarks that swap tiles
+ * without telling it leave it out of date.
+ * <p>
+ * tapsY, tapsX - Random pixel positions inside the grid.
+ * <p>
+ * positions1, positions2 - Random pairs of tiles to swap.
+ * <p>
+ * next - The index of the next tap or pair, wraps at TAPS.
+ * <p>
+ * seed - The seed of the next scramble.
+ *
+ */
+
+@State(Scope.Thread)
+public class GridState {
+
+    static final int TILE_WIDTH = 21;
+    static final int TILE_HEIGHT = 34;
+    static final long SEED = 42;
+    static final int TAPS = 1024;
+
+    @Param({"3x2", "3x3", "4x3", "4x4", "5x4", "5x5",
+            "10x10", "20x20", "50x50", "100x100"})
+    public String size;
+
+    GameGrid gameGrid;
+    int imageSources[];
+    SwapSolver solver;
+    int tapsY[] = new int[TAPS];
+    int tapsX[] = new int[TAPS];
+    Position positions1[] = new Position[TAPS];
+    Position positions2[] = new Position[TAPS];
+    private int next = 0;
+    long seed = 0;
+
+    /**
+     * Builds the grid and the taps.
+     */
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        GridSize gridSize = GridSize.parse(size);
+        int rows = gridSize.getRows();
+        int columns = gridSize.getColumns();
+        Random random = new Random(SEED);
+
+        gameGrid = new GameGrid(TILE_WIDTH, TILE_HEIGHT, rows, columns);
+        new Scrambler(SEED, Scrambler.ALL_TILES).scramble(gameGrid);
+        imageSources = gameGrid.getImageSources();
+        solver = new SwapSolver(gameGrid);
+
+        for(int i = 0; i<TAPS; i++){
+            tapsY[i] = random.nextInt(rows * TILE_HEIGHT);
+            tapsX[i] = random.nextInt(columns * TILE_WIDTH);
+            positions1[i] = gameGrid.getRandomPosition(random);
+            positions2[i] = gameGrid.getRandomPosition(random);
+        }
+    }
+
+    /**
+     * Steps to the next tap or pair.
+     * @return The index of the tap or pair to use.
+     */
+
+    int next(){
+        next = (next + 1) & (TAPS - 1);
+        return next;
+    }
+}
@@ -0,0 +1,69 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <h1>KorfState</h1>
+ * Benchmark state of the sliding solver. Holds the first ten standard
+ * 15-puzzle instances of Korf (1985) and a 4x4 solver, which is built
+ * once and shared by every instance. Korf's goal has the blank in the
+ * first cell, so the instances are rotated half a turn to fit the grid,
+ * where the blank ends in the last tile.
+ * <p>
+ * instance - The number of the instance, from 1.
+ * <p>
+ * gameGrid - The grid of the instance.
+ * <p>
+ * optimal - The length of an optimal solution of the instance.
+ * <p>
+ * solver - The 4x4 solver.
+ *
+ */
+
+@State(Scope.Benchmark)
+public class KorfState {
+
+    private static final int[][] INSTANCES = {
+            {14, 13, 15, 7, 11, 12, 9, 5, 6, 0, 2, 1, 4, 8, 10, 3},
+            {13, 5, 4, 10, 9, 12, 8, 14, 2, 3, 7, 1, 0, 15, 11, 6},
+            {14, 7, 8, 2, 13, 11, 10, 4, 9, 12, 5, 0, 3, 6, 1, 15},
+            {5, 12, 10, 7, 15, 11, 14, 0, 8, 2, 1, 13, 3, 4, 9, 6},
+            {4, 7, 14, 13, 10, 3, 9, 12, 11, 5, 6, 15, 1, 2, 8, 0},
+            {14, 7, 1, 9, 12, 3, 6, 15, 8, 11, 2, 5, 10, 0, 4, 13},
+            {2, 11, 15, 5, 13, 4, 6, 7, 12, 8, 10, 1, 9, 3, 14, 0},
+            {12, 11, 15, 3, 8, 0, 4, 2, 6, 13, 9, 5, 14, 1, 10, 7},
+            {3, 14, 9, 11, 5, 4, 8, 2, 13, 12, 6, 7, 10, 1, 15, 0},
+            {13, 11, 8, 9, 0, 15, 7, 10, 4, 3, 6, 14, 5, 12, 2, 1}};
+    private static final int[] OPTIMAL = {57, 55, 59, 56, 56, 52, 52, 50,
+            46, 59};
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int instance;
+
+    GameGrid gameGrid;
+    int optimal;
+    static SlidingSolver solver;
+
+    /**
+     * Builds the grid of the instance, and the solver if it is not built.
+     */
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        if(solver == null){
+            solver = SlidingSolver.build(4, 4);
+        }
+        int cells[] = INSTANCES[instance - 1];
+        gameGrid = new GameGrid(10, 10, 4, 4);
+        for(int cell = 0; cell<16; cell++){
+            int tile = 15 - cell;
+            gameGrid.swapTiles(tile, gameGrid.getTileOfImageSource(
+                    15 - cells[cell]));
+        }
+        optimal = OPTIMAL[instance - 1];
+    }
+}
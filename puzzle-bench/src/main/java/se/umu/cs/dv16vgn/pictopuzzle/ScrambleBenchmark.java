@@ -0,0 +1,52 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>ScrambleBenchmark</h1>
+ * Benchmarks scrambling a grid for the swap modes and for Sliding
+ * Puzzle. Every invocation scrambles the already scrambled grid again
+ * with a new seed from the state, which costs the same as scrambling
+ * a solved grid.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScrambleBenchmark {
+
+    /**
+     * Scrambles every tile out of place.
+     * @param state The benchmark state.
+     * @return The misplaced tiles.
+     */
+
+    @Benchmark
+    public int scramble(GridState state){
+        new Scrambler(state.seed++, Scrambler.ALL_TILES).scramble(state.gameGrid);
+        return state.gameGrid.getMisplacedTiles();
+    }
+
+    /**
+     * Scrambles every tile out of place into a solvable sliding puzzle.
+     * @param state The benchmark state.
+     * @return The misplaced tiles.
+     */
+
+    @Benchmark
+    public int scrambleSliding(GridState state){
+        new Scrambler(state.seed++, Scrambler.ALL_TILES).scrambleSliding(
+                state.gameGrid);
+        return state.gameGrid.getMisplacedTiles();
+    }
+}
@@ -0,0 +1,104 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>SerializationBenchmark</h1>
+ * Benchmarks saving and restoring the state of a grid. Parcel only
+ * exists on Android, so this measures the work ParcelableGameGrid does
+ * around it: packing the permutation with PermutationCodec, unpacking
+ * it and rebuilding the grid with its restoring constructor.
+ * <p>
+ * encoded - The packed permutation of the state grid.
+ * <p>
+ * decoded - Scratch array to unpack into.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private byte encoded[];
+    private int decoded[];
+
+    /**
+     * Packs the permutation once for the reading benchmarks.
+     * @param state The benchmark state.
+     */
+
+    @Setup
+    public void setUp(GridState state){
+        encoded = PermutationCodec.encode(state.gameGrid.getImageSources());
+        decoded = new int[state.imageSources.length];
+    }
+
+    /**
+     * Packs the permutation of a grid, as when the state is saved.
+     * @param state The benchmark state.
+     * @return The packed permutation.
+     */
+
+    @Benchmark
+    public byte[] write(GridState state){
+        return PermutationCodec.encode(state.gameGrid.getImageSources());
+    }
+
+    /**
+     * Unpacks a permutation.
+     * @return The unpacked permutation.
+     */
+
+    @Benchmark
+    public int[] read(){
+        PermutationCodec.decode(encoded, decoded);
+        return decoded;
+    }
+
+    /**
+     * Rebuilds a grid from an unpacked permutation, the model side of
+     * restoring a puzzle.
+     * @param state The benchmark state.
+     * @return The rebuilt grid.
+     */
+
+    @Benchmark
+    public GameGrid restore(GridState state){
+        GameGrid gameGrid = state.gameGrid;
+        return new GameGrid(gameGrid.getTileWidth(),
+                gameGrid.getTileHeight(), gameGrid.getRows(),
+                gameGrid.getColumns(), state.imageSources);
+    }
+
+    /**
+     * Saves and restores a grid.
+     * @param state The benchmark state.
+     * @return The restored grid.
+     */
+
+    @Benchmark
+    public GameGrid roundTrip(GridState state){
+        GameGrid gameGrid = state.gameGrid;
+        byte bytes[] = PermutationCodec.encode(gameGrid.getImageSources());
+        int sources[] = new int[gameGrid.getRows() * gameGrid.getColumns()];
+        PermutationCodec.decode(bytes, sources);
+        return new GameGrid(gameGrid.getTileWidth(),
+                gameGrid.getTileHeight(), gameGrid.getRows(),
+                gameGrid.getColumns(), sources);
+    }
+}
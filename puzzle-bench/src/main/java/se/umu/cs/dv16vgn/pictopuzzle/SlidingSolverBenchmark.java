@@ -0,0 +1,44 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>SlidingSolverBenchmark</h1>
+ * Benchmarks solving the Korf instances optimally with the pattern
+ * databases of the 4x4 solver. The slowest instances take seconds, so
+ * few iterations are run. A solution of the wrong length fails the
+ * benchmark.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class SlidingSolverBenchmark {
+
+    /**
+     * Solves the instance with no node budget.
+     * @param state The benchmark state.
+     * @return The expanded nodes.
+     */
+
+    @Benchmark
+    public long solve(KorfState state){
+        int solution[] = KorfState.solver.solve(state.gameGrid,
+                Long.MAX_VALUE);
+        if(solution == null || solution.length != state.optimal){
+            throw new IllegalStateException("Instance " + state.instance
+                    + " was not solved optimally");
+        }
+        return KorfState.solver.getExpandedNodes();
+    }
+}
@@ -0,0 +1,113 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>SwapSolverBenchmark</h1>
+ * Benchmarks keeping the least amount of swaps up to date after a tap,
+ * and finding hints, both when following hints and after random swaps.
+ * The full decomposition is benchmarked for comparison. Run it alone
+ * with gradle jmh -PjmhArgs=SwapSolverBenchmark.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwapSolverBenchmark {
+
+    /**
+     * Swaps a random pair of tiles and updates the solver.
+     * @param state The benchmark state.
+     * @return The least amount of swaps after the swap.
+     */
+
+    @Benchmark
+    public int onSwap(GridState state){
+        int i = state.next();
+        swap(state, state.positions1[i], state.positions2[i]);
+        return state.solver.getMinimumSwaps();
+    }
+
+    /**
+     * Finds a hint and makes its swap. The grid is scrambled again when
+     * it is solved, which adds about one scrambled tile per hint.
+     * @param state The benchmark state.
+     * @return The hint tile.
+     */
+
+    @Benchmark
+    public int followHint(GridState state){
+        int tile = state.solver.getHintTile();
+        if(tile == -1){
+            new Scrambler(state.seed++, Scrambler.ALL_TILES).scramble(
+                    state.gameGrid);
+            state.solver.recompute();
+            return tile;
+        }
+        int other = state.gameGrid.getTileOfImageSource(tile);
+        state.gameGrid.swapTiles(tile, other);
+        state.solver.onSwap(tile, other);
+        return tile;
+    }
+
+    /**
+     * Swaps a random pair of tiles, then finds a hint, the way a player
+     * asks for a hint after playing.
+     * @param state The benchmark state.
+     * @return The hint tile.
+     */
+
+    @Benchmark
+    public int swapThenHint(GridState state){
+        int i = state.next();
+        swap(state, state.positions1[i], state.positions2[i]);
+        return state.solver.getHintTile();
+    }
+
+    /**
+     * Reads the least amount of swaps.
+     * @param state The benchmark state.
+     * @return The least amount of swaps.
+     */
+
+    @Benchmark
+    public int getMinimumSwaps(GridState state){
+        return state.solver.getMinimumSwaps();
+    }
+
+    /**
+     * Decomposes the grid into cycles from scratch.
+     * @param state The benchmark state.
+     * @return The least amount of swaps.
+     */
+
+    @Benchmark
+    public int recompute(GridState state){
+        state.solver.recompute();
+        return state.solver.getMinimumSwaps();
+    }
+
+    /**
+     * Swaps two tiles in the grid and updates the solver, like a tap.
+     * @param state The benchmark state.
+     * @param p1 The position of a tile to swap.
+     * @param p2 The position of a tile to swap.
+     */
+
+    private void swap(GridState state, Position p1, Position p2){
+        int index1 = state.gameGrid.indexOf(p1.getY(), p1.getX());
+        int index2 = state.gameGrid.indexOf(p2.getY(), p2.getX());
+        state.gameGrid.swapTiles(index1, index2);
+        state.solver.onSwap(index1, index2);
+    }
+}
@@ -0,0 +1,81 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import java.util.Arrays;
+
+/**
+ * <h1>FrameStats</h1>
+ * The times of the latest frames of an animation, kept in a ring made
+ * once so recording a frame allocates nothing. Percentiles are found
+ * with the nearest rank method.
+ * <p>
+ * times - The frame times in nanoseconds, the first count are used.
+ * <p>
+ * count - The amount of frame times kept.
+ * <p>
+ * next - The place of the next frame time in times.
+ *
+ */
+
+public class FrameStats {
+
+    private long times[];
+    private int count = 0;
+    private int next = 0;
+
+    /**
+     * Standard constructor.
+     * @param capacity The amount of frames kept, older frames are
+     *                 forgotten.
+     */
+
+    public FrameStats(int capacity){
+        this.times = new long[capacity];
+    }
+
+    /**
+     * Records the time of a frame.
+     * @param nanos The time the frame took, in nanoseconds.
+     */
+
+    public void record(long nanos){
+        times[next] = nanos;
+        next = (next + 1) % times.length;
+        if(count < times.length){
+            count++;
+        }
+    }
+
+    /**
+     * Finds a percentile of the frame times kept.
+     * @param percentile The percentile, above 0 and at most 100.
+     * @return The frame time in nanoseconds, 0 if no frame is kept.
+     */
+
+    public long getPercentile(double percentile){
+        if(count == 0){
+            return 0;
+        }
+        long sorted[] = Arrays.copyOf(times, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    /**
+     * Forgets every frame time.
+     */
+
+    public void reset(){
+        count = 0;
+        next = 0;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of frame times kept.
+     */
+
+    public int getCount() {
+        return count;
+    }
+}
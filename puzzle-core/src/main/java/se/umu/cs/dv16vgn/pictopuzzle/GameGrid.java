@@ -0,0 +1,357 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <h1>GameGrid</h1>
+ * Governs grid logic. The grid is stored as a flat permutation where
+ * every tile is addressed by its index, row * columns + column.
+ * <p>
+ * tileWidth - The width of tiles.
+ * <p>
+ * tileHeight - The height of tiles.
+ * <p>
+ * rows - The amount of rows in the grid.
+ * <p>
+ * columns - The amount of columns in the grid.
+ * <p>
+ * imageSources - The index of the image source shown on each tile.
+ * <p>
+ * imageTiles - The inverse of imageSources, the index of the tile
+ * showing each image source.
+ * <p>
+ * misplacedTiles - The amount of tiles not showing their own image.
+ * <p>
+ * tiles - A matrix of GameTiles that view the grid tile by tile.
+ * <p>
+ * positions - One shared Position per tile, indexed like imageSources.
+ * They are handed out by the grid and must not be modified.
+ * <p>
+ * markedTile - The position of the currently marked tile.
+ *
+ */
+
+public class GameGrid {
+
+    private int tileWidth;
+    private int tileHeight;
+    private int rows;
+    private int columns;
+    private int imageSources[];
+    private int imageTiles[];
+    private int misplacedTiles;
+    private GameTile tiles[][];
+    private Position positions[];
+    private Position markedTile = null;
+
+    /**
+     * Standard constructor.
+     * @param tileWidth The width of tiles.
+     * @param tileHeight The height of tiles.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     */
+
+    public GameGrid (int tileWidth, int tileHeight, int rows, int columns){
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.rows = rows;
+        this.columns = columns;
+        this.imageSources = new int[rows * columns];
+        this.imageTiles = new int[rows * columns];
+
+        for(int i = 0; i<imageSources.length; i++){
+            imageSources[i] = i;
+            imageTiles[i] = i;
+        }
+        this.misplacedTiles = 0;
+        createTileViews();
+        createPositions();
+    }
+
+    /**
+     * Copy constructor. The copy has no marked tile.
+     * @param other The grid to copy.
+     */
+
+    public GameGrid (GameGrid other){
+        this.tileWidth = other.tileWidth;
+        this.tileHeight = other.tileHeight;
+        this.rows = other.rows;
+        this.columns = other.columns;
+        this.imageSources = other.imageSources.clone();
+        this.imageTiles = other.imageTiles.clone();
+        this.misplacedTiles = other.misplacedTiles;
+        createTileViews();
+        createPositions();
+    }
+
+    /**
+     * Restoring constructor. Builds a grid from a saved permutation.
+     * @param tileWidth The width of tiles.
+     * @param tileHeight The height of tiles.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param imageSources The index of the image source shown on each
+     *                     tile. The array is not kept.
+     * @throws IllegalArgumentException if imageSources is not
+     * a permutation of the tiles.
+     */
+
+    public GameGrid (int tileWidth, int tileHeight, int rows, int columns,
+                     int imageSources[]){
+        if(imageSources.length != rows * columns){
+            throw new IllegalArgumentException(
+                    "Image sources do not match the grid");
+        }
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.rows = rows;
+        this.columns = columns;
+        this.imageSources = imageSources.clone();
+        this.imageTiles = new int[rows * columns];
+        rebuildImageTiles();
+        createTileViews();
+        createPositions();
+    }
+
+    /**
+     * Creates the GameTile views of the grid.
+     */
+
+    private void createTileViews(){
+        this.tiles = new GameTile[rows][columns];
+
+        for(int i = 0; i<rows; i++){
+            for (int j = 0; j<columns; j++){
+                tiles[i][j] = new GameTile(this, i, j);
+            }
+        }
+    }
+
+    /**
+     * Creates the shared Position of every tile.
+     */
+
+    private void createPositions(){
+        this.positions = new Position[rows * columns];
+
+        for(int i = 0; i<positions.length; i++){
+            positions[i] = new Position(i / columns, i % columns);
+        }
+    }
+
+    /**
+     * Rebuilds the inverse permutation and the count of misplaced
+     * tiles from imageSources.
+     * @throws IllegalArgumentException if imageSources is not
+     * a permutation.
+     */
+
+    private void rebuildImageTiles(){
+        misplacedTiles = 0;
+        Arrays.fill(imageTiles, -1);
+        for(int i = 0; i<imageSources.length; i++){
+            int source = imageSources[i];
+            if(source < 0 || source >= imageTiles.length
+                    || imageTiles[source] != -1){
+                throw new IllegalArgumentException(
+                        "Image sources do not form a permutation");
+            }
+            imageTiles[source] = i;
+            if(imageSources[i] != i){
+                misplacedTiles++;
+            }
+        }
+    }
+
+    /**
+     * Swaps the image source positions of two tiles.
+     * @param p1 A tile to swap with.
+     * @param p2 A tile to swap with.
+     */
+
+    public void swapTileImageSourcePositions(Position p1, Position p2){
+        swapTiles(indexOf(p1.getY(), p1.getX()),
+                indexOf(p2.getY(), p2.getX()));
+    }
+
+    /**
+     * Swaps the image sources of two tiles and keeps the count of
+     * misplaced tiles up to date.
+     * @param index1 The index of a tile to swap with.
+     * @param index2 The index of a tile to swap with.
+     */
+
+    public void swapTiles(int index1, int index2){
+        if(index1 == index2){
+            return;
+        }
+        int source1 = imageSources[index1];
+        int source2 = imageSources[index2];
+
+        misplacedTiles -= (source1 != index1 ? 1 : 0)
+                + (source2 != index2 ? 1 : 0);
+        imageSources[index1] = source2;
+        imageSources[index2] = source1;
+        imageTiles[source2] = index1;
+        imageTiles[source1] = index2;
+        misplacedTiles += (source2 != index1 ? 1 : 0)
+                + (source1 != index2 ? 1 : 0);
+    }
+
+    /**
+     * Checks if the puzzle is solved.
+     * @return Returns true if the puzzle is solved, false otherwise.
+     */
+
+    public Boolean isPuzzleSolved(){
+        return misplacedTiles == 0;
+    }
+
+    /**
+     * Calculates the position of a tile with its pixel position data.
+     * @param y Y pixel position.
+     * @param x X pixel position.
+     * @return The calculated position, shared by the grid.
+     */
+
+    public Position calculateTilePosition(int y, int x){
+        int row = Math.max(0, Math.min(rows - 1, y/tileHeight));
+        int column = Math.max(0, Math.min(columns - 1, x/tileWidth));
+        return positions[indexOf(row, column)];
+    }
+
+    /**
+     * Gets a random position from the grid.
+     * @param random The seed to randomize with.
+     * @return A random position from the grid, shared by the grid.
+     */
+
+    public Position getRandomPosition(Random random){
+        return positions[random.nextInt(positions.length)];
+    }
+
+    /**
+     * Calculates the index of a tile.
+     * @param row The row of the tile.
+     * @param column The column of the tile.
+     * @return The index of the tile.
+     */
+
+    public int indexOf(int row, int column){
+        return row * columns + column;
+    }
+
+    /**
+     * Getter.
+     * @param index The index of a tile.
+     * @return The shared position of the tile.
+     */
+
+    public Position getPosition(int index){
+        return positions[index];
+    }
+
+    /**
+     * Getter.
+     * @param index The index of a tile.
+     * @return The index of the image source shown on the tile.
+     */
+
+    public int getImageSource(int index){
+        return imageSources[index];
+    }
+
+    /**
+     * Getter.
+     * @param imageSource The index of an image source.
+     * @return The index of the tile showing the image source.
+     */
+
+    public int getTileOfImageSource(int imageSource){
+        return imageTiles[imageSource];
+    }
+
+    /**
+     * Getter.
+     * @return A copy of the index of the image source shown on each tile.
+     */
+
+    public int[] getImageSources(){
+        return imageSources.clone();
+    }
+
+    /**
+     * Getter.
+     * @return The amount of tiles not showing their own image.
+     */
+
+    public int getMisplacedTiles() {
+        return misplacedTiles;
+    }
+
+    /**
+     * Getter.
+     * @return The tile matrix.
+     */
+
+    public GameTile[][] getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Getter.
+     * @return The height of tiles.
+     */
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * Getter.
+     * @return The width of tiles.
+     */
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * Getter.
+     * @return The position of the marked tile.
+     */
+
+    public Position getMarkedTile() {
+        return markedTile;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of rows.
+     */
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of columns.
+     */
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Setter.
+     * @param markedTile The position of the new marked tile.
+     */
+
+    public void setMarkedTile(Position markedTile) {
+        this.markedTile = markedTile;
+    }
+}
@@ -0,0 +1,92 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+/**
+ * <h1>GameTile</h1>
+ * Represents the positional data of a tile. A GameTile is a view of
+ * a single tile in a GameGrid and holds no image data of its own.
+ * <p>
+ * grid - The GameGrid the tile belongs to.
+ * <p>
+ * row - The row of the tile.
+ * <p>
+ * column - The column of the tile.
+ *
+ */
+
+public class GameTile {
+    private GameGrid grid;
+    private int row;
+    private int column;
+
+    /**
+     * Standard constructor.
+     * @param grid The GameGrid the tile belongs to.
+     * @param row The row of the tile.
+     * @param column The column of the tile.
+     */
+
+    public GameTile (GameGrid grid, int row, int column){
+        this.grid = grid;
+        this.row = row;
+        this.column = column;
+    }
+
+    /**
+     * Checks if the correct image is on the tile.
+     * @return True if it's the correct image, false otherwise.
+     */
+
+    public Boolean isImageCorrect(){
+        int index = grid.indexOf(row, column);
+        return grid.getImageSource(index) == index;
+    }
+
+    /**
+     * Getter.
+     * @return The position of the tile, shared by the grid.
+     */
+
+    public Position getActualPosition() {
+        return grid.getPosition(grid.indexOf(row, column));
+    }
+
+    /**
+     * Getter.
+     * @return The image source position, shared by the grid.
+     */
+
+    public Position getImageSourcePosition() {
+        return grid.getPosition(grid.getImageSource(
+                grid.indexOf(row, column)));
+    }
+
+    /**
+     * Setter. Swaps images with the tile currently showing the image
+     * source so that every image stays on exactly one tile.
+     * @param imageSourcePosition The new The image source position.
+     */
+
+    public void setImageSourcePosition(Position imageSourcePosition) {
+        int source = grid.indexOf(imageSourcePosition.getY(),
+                imageSourcePosition.getX());
+        grid.swapTiles(grid.indexOf(row, column),
+                grid.getTileOfImageSource(source));
+    }
+
+    /**
+     * Checks if two tiles are identical.
+     * @param o The object to compare to.
+     * @return True if given object is an equal tile.
+     */
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameTile)) return false;
+        GameTile gameTile = (GameTile) o;
+        return row == gameTile.row && column == gameTile.column &&
+                grid.getImageSource(grid.indexOf(row, column)) ==
+                        gameTile.grid.getImageSource(
+                                gameTile.grid.indexOf(row, column));
+    }
+}
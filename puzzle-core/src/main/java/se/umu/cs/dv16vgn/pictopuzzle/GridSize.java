@@ -0,0 +1,134 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+/**
+ * <h1>GridSize</h1>
+ * The size of a puzzle grid, parsed from a definition such as "5x4"
+ * or "50x50".
+ * <p>
+ * rows - The amount of rows in the grid.
+ * <p>
+ * columns - The amount of columns in the grid.
+ * <p>
+ * PRESETS - The grid sizes offered as difficulties, each a grid
+ * definition.
+ *
+ */
+
+public class GridSize {
+
+    static final int MAX_SIDE = 100;
+    public static final String[] PRESETS = {"3x2", "3x3", "4x3",
+                                            "4x4", "5x4", "5x5",
+                                            "10x10", "20x20", "50x50"};
+
+    private int rows;
+    private int columns;
+
+    /**
+     * Standard constructor.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @throws IllegalArgumentException if a side is smaller than 1
+     * or larger than MAX_SIDE.
+     */
+
+    public GridSize(int rows, int columns){
+        if(rows < 1 || columns < 1 || rows > MAX_SIDE || columns > MAX_SIDE){
+            throw new IllegalArgumentException("Unsupported grid size "
+                    + rows + "x" + columns);
+        }
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Parses a grid definition on the form rows x columns, e.g. "20x20".
+     * @param definition The definition to parse.
+     * @return The parsed size.
+     * @throws IllegalArgumentException if the definition is malformed.
+     */
+
+    public static GridSize parse(String definition){
+        if(definition == null){
+            throw new IllegalArgumentException("Missing grid definition");
+        }
+        String trimmed = definition.trim();
+        int separator = trimmed.indexOf('x');
+        if(separator < 0){
+            separator = trimmed.indexOf('X');
+        }
+        if(separator <= 0 || separator == trimmed.length() - 1){
+            throw new IllegalArgumentException("Malformed grid definition "
+                    + definition);
+        }
+        try{
+            return new GridSize(
+                    Integer.parseInt(trimmed.substring(0, separator).trim()),
+                    Integer.parseInt(trimmed.substring(separator + 1).trim()));
+        }catch (NumberFormatException e){
+            throw new IllegalArgumentException("Malformed grid definition "
+                    + definition, e);
+        }
+    }
+
+    /**
+     * Getter.
+     * @return The amount of rows.
+     */
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of columns.
+     */
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of tiles.
+     */
+
+    public int getTileCount() {
+        return rows * columns;
+    }
+
+    /**
+     * Checks if two GridSizes have the same rows and columns.
+     * @param o The object to compare to.
+     * @return True if given object is an equal size.
+     */
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GridSize)) return false;
+        GridSize gridSize = (GridSize) o;
+        return rows == gridSize.rows && columns == gridSize.columns;
+    }
+
+    /**
+     * Hash code consistent with equals.
+     * @return The hash code.
+     */
+
+    @Override
+    public int hashCode() {
+        return rows * 31 + columns;
+    }
+
+    /**
+     * Converts the size to its definition.
+     * @return The definition, e.g. "5x4".
+     */
+
+    @Override
+    public String toString() {
+        return rows + "x" + columns;
+    }
+}
@@ -0,0 +1,293 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <h1>PatternDatabase</h1>
+ * Exact distances for a group of tiles of a sliding puzzle, counting
+ * only moves of the tiles in the group. Each move of a group tile goes
+ * into a neighbouring tile not held by the group. Databases of disjoint
+ * groups can be added together and still never overestimate the moves
+ * left, which makes them an admissible heuristic for IDA*.
+ * <p>
+ * Entries are indexed by the tiles holding the group, ranked as a
+ * partial permutation, one byte per entry.
+ * <p>
+ * rows - The amount of rows in the grid.
+ * <p>
+ * columns - The amount of columns in the grid.
+ * <p>
+ * pattern - The image sources in the group.
+ * <p>
+ * distances - The distance of every placement of the group.
+ *
+ */
+
+public class PatternDatabase {
+
+    private static final int FILE_MAGIC = 0x50444231;
+    private static final int UNVISITED = 0xFF;
+    private static final int BITS_PER_TILE = 5;
+
+    private int rows;
+    private int columns;
+    private int pattern[];
+    private byte distances[];
+
+    /**
+     * Standard constructor.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param pattern The image sources in the group.
+     * @param distances The distance of every placement of the group.
+     */
+
+    private PatternDatabase(int rows, int columns, int[] pattern,
+                            byte[] distances){
+        this.rows = rows;
+        this.columns = columns;
+        this.pattern = pattern;
+        this.distances = distances;
+    }
+
+    /**
+     * Calculates the amount of ordered placements of k tiles among n.
+     * @param n The amount of tiles in the grid.
+     * @param k The amount of tiles in the group.
+     * @return n! / (n - k)!
+     */
+
+    public static long placements(int n, int k){
+        long result = 1;
+        for(int i = 0; i<k; i++){
+            result *= n - i;
+        }
+        return result;
+    }
+
+    /**
+     * Builds a database with a breadth first search from the solved
+     * placement of the group.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param pattern The image sources in the group, at most six and
+     *                never the blank.
+     * @return The built database.
+     * @throws IllegalArgumentException if the grid has more than 32
+     * tiles or the group is too large.
+     */
+
+    public static PatternDatabase build(int rows, int columns,
+                                        int[] pattern){
+        int tiles = rows * columns;
+        int k = pattern.length;
+        if(tiles > 1 << BITS_PER_TILE || k > 30 / BITS_PER_TILE
+                || placements(tiles, k) > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Pattern too large");
+        }
+        int size = (int) placements(tiles, k);
+        byte distances[] = new byte[size];
+        int queue[] = new int[size];
+        int positions[] = new int[k];
+        int head = 0;
+        int tail = 0;
+
+        Arrays.fill(distances, (byte) UNVISITED);
+        for(int i = 0; i<k; i++){
+            positions[i] = pattern[i];
+        }
+        distances[rank(positions, k, tiles)] = 0;
+        queue[tail++] = pack(positions);
+
+        while(head < tail){
+            unpack(queue[head++], positions);
+            int distance = distances[rank(positions, k, tiles)] & 0xFF;
+            long occupied = 0;
+            for(int position : positions){
+                occupied |= 1L << position;
+            }
+
+            for(int i = 0; i<k; i++){
+                int from = positions[i];
+                int row = from / columns;
+                int column = from % columns;
+                for(int direction = 0; direction<4; direction++){
+                    int to;
+                    if(direction == 0 && row > 0){
+                        to = from - columns;
+                    }else if(direction == 1 && row < rows - 1){
+                        to = from + columns;
+                    }else if(direction == 2 && column > 0){
+                        to = from - 1;
+                    }else if(direction == 3 && column < columns - 1){
+                        to = from + 1;
+                    }else{
+                        continue;
+                    }
+                    if((occupied & (1L << to)) != 0){
+                        continue;
+                    }
+                    positions[i] = to;
+                    int index = rank(positions, k, tiles);
+                    if((distances[index] & 0xFF) == UNVISITED){
+                        distances[index] = (byte) (distance + 1);
+                        queue[tail++] = pack(positions);
+                    }
+                }
+                positions[i] = from;
+            }
+        }
+        return new PatternDatabase(rows, columns, pattern.clone(),
+                distances);
+    }
+
+    /**
+     * Ranks an ordered placement of distinct tiles.
+     * @param positions The tile of every group member.
+     * @param k The amount of group members in positions.
+     * @param tiles The amount of tiles in the grid.
+     * @return The index of the placement.
+     */
+
+    private static int rank(int[] positions, int k, int tiles){
+        int index = 0;
+        int used = 0;
+        for(int i = 0; i<k; i++){
+            int position = positions[i];
+            int digit = position
+                    - Integer.bitCount(used & ((1 << position) - 1));
+            used |= 1 << position;
+            index = index * (tiles - i) + digit;
+        }
+        return index;
+    }
+
+    /**
+     * Packs a placement into an int, five bits per tile.
+     * @param positions The placement.
+     * @return The packed placement.
+     */
+
+    private static int pack(int[] positions){
+        int packed = 0;
+        for(int position : positions){
+            packed = (packed << BITS_PER_TILE) | position;
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks a placement packed by pack.
+     * @param packed The packed placement.
+     * @param positions The array to unpack into.
+     */
+
+    private static void unpack(int packed, int[] positions){
+        for(int i = positions.length - 1; i >= 0; i--){
+            positions[i] = packed & ((1 << BITS_PER_TILE) - 1);
+            packed >>>= BITS_PER_TILE;
+        }
+    }
+
+    /**
+     * Looks up the distance of the group.
+     * @param tileOfSource The tile showing every image source.
+     * @param scratch An array at least as long as the group, used for
+     *                the lookup.
+     * @return The least amount of group moves left.
+     */
+
+    public int lookup(int[] tileOfSource, int[] scratch){
+        for(int i = 0; i<pattern.length; i++){
+            scratch[i] = tileOfSource[pattern[i]];
+        }
+        return distances[rank(scratch, pattern.length, rows * columns)] & 0xFF;
+    }
+
+    /**
+     * Looks up the distance of the group in the grid mirrored by
+     * transpose. Mirroring moves image source s from tile t to
+     * mirror[s] on tile mirror[t]. Only valid for square grids.
+     * @param tileOfSource The tile showing every image source.
+     * @param mirror The mirror tile of every tile.
+     * @param scratch An array at least as long as the group, used for
+     *                the lookup.
+     * @return The least amount of group moves left in the mirrored grid.
+     */
+
+    public int lookupReflected(int[] tileOfSource, int[] mirror,
+                               int[] scratch){
+        for(int i = 0; i<pattern.length; i++){
+            scratch[i] = mirror[tileOfSource[mirror[pattern[i]]]];
+        }
+        return distances[rank(scratch, pattern.length, rows * columns)]
+                & 0xFF;
+    }
+
+    /**
+     * Getter.
+     * @return The image sources in the group.
+     */
+
+    public int[] getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Getter.
+     * @return The size of the database in bytes.
+     */
+
+    public int getByteCount() {
+        return distances.length;
+    }
+
+    /**
+     * Writes the database to a stream.
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(rows);
+        out.writeInt(columns);
+        out.writeInt(pattern.length);
+        for(int source : pattern){
+            out.writeInt(source);
+        }
+        out.writeInt(distances.length);
+        out.write(distances);
+    }
+
+    /**
+     * Reads a database written by writeTo.
+     * @param in The stream to read from.
+     * @return The read database.
+     * @throws IOException if the stream cannot be read or holds
+     * something else.
+     */
+
+    public static PatternDatabase readFrom(DataInputStream in)
+            throws IOException {
+        if(in.readInt() != FILE_MAGIC){
+            throw new IOException("Not a pattern database");
+        }
+        int rows = in.readInt();
+        int columns = in.readInt();
+        int pattern[] = new int[in.readInt()];
+        for(int i = 0; i<pattern.length; i++){
+            pattern[i] = in.readInt();
+        }
+        int length = in.readInt();
+        if(length != placements(rows * columns, pattern.length)){
+            throw new IOException("Pattern database has the wrong size");
+        }
+        byte distances[] = new byte[length];
+        in.readFully(distances);
+        return new PatternDatabase(rows, columns, pattern, distances);
+    }
+}
@@ -0,0 +1,86 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+/**
+ * <h1>PermutationCodec</h1>
+ * Packs a permutation of tile indexes into a byte array. Every entry
+ * is stored with the fewest whole bytes that fit the largest index,
+ * one byte up to 256 tiles, two bytes up to 65536 tiles and four bytes
+ * above that. The first byte of the array holds the entry width.
+ *
+ */
+
+public final class PermutationCodec {
+
+    /**
+     * Not instantiable.
+     */
+
+    private PermutationCodec(){
+
+    }
+
+    /**
+     * Calculates the amount of bytes needed per entry.
+     * @param length The amount of entries in the permutation.
+     * @return 1, 2 or 4.
+     */
+
+    static int bytesPerEntry(int length){
+        if(length <= 1 << 8){
+            return 1;
+        }else if(length <= 1 << 16){
+            return 2;
+        }
+        return 4;
+    }
+
+    /**
+     * Packs a permutation.
+     * @param permutation The permutation to pack.
+     * @return The packed permutation.
+     */
+
+    public static byte[] encode(int[] permutation){
+        int width = bytesPerEntry(permutation.length);
+        byte[] packed = new byte[1 + permutation.length * width];
+        int offset = 1;
+
+        packed[0] = (byte) width;
+        for(int value : permutation){
+            for(int shift = (width - 1) * 8; shift >= 0; shift -= 8){
+                packed[offset++] = (byte) (value >>> shift);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks a permutation.
+     * @param packed The packed permutation.
+     * @param permutation The array to unpack into. Its length must match
+     *                    the amount of packed entries.
+     * @throws IllegalArgumentException if the packed data does not match
+     * the length of the permutation.
+     */
+
+    public static void decode(byte[] packed, int[] permutation){
+        if(packed == null || packed.length == 0){
+            throw new IllegalArgumentException("Missing permutation data");
+        }
+        int width = packed[0];
+        if(width != bytesPerEntry(permutation.length)
+                || packed.length != 1 + permutation.length * width){
+            throw new IllegalArgumentException(
+                    "Permutation data does not match grid size");
+        }
+        int offset = 1;
+
+        for(int i = 0; i<permutation.length; i++){
+            int value = 0;
+            for(int j = 0; j<width; j++){
+                value = (value << 8) | (packed[offset++] & 0xFF);
+            }
+            permutation[i] = value;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+/**
+ * <h1>Position</h1>
+ * Position is a coordinate container. It can not be changed, so a
+ * GameGrid can hand out one shared Position per tile.
+ * <p>
+ * x - The x coordinate.
+ * <p>
+ * y - The y coordinate.
+ *
+ */
+
+public class Position {
+    private final int y;
+    private final int x;
+
+
+    /**
+     * Generates a new Position with given x and y - coordinate.
+     * @param y
+     * @param x
+     */
+    public Position(int y, int x){
+        this.y = y;
+        this.x = x;
+    }
+
+    /**
+     * Getter for the x value.
+     * @return The x value.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Getter for the y value.
+     * @return The y value.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Checks if two Positions have the same x and y values.
+     * @param object The object to compare to.
+     * @return True if given object is a position with equal x and y values.
+     */
+
+    @Override
+    public boolean equals(Object object){
+        return (((Position)object).getX() == x
+                && ((Position)object).getY() == y);
+    }
+
+    /**
+     * Converts the data in Position to a formatted string.
+     * @return  A formatted string.
+     */
+
+    @Override
+    public String toString() {
+        return "Position[" + y + ", " + x  +"]";
+    }
+}
@@ -0,0 +1,115 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import java.util.Random;
+
+/**
+ * <h1>Scrambler</h1>
+ * Scrambles a GameGrid with a Fisher-Yates shuffle. Every arrangement
+ * with at least minMisplaced misplaced tiles is equally likely, and the
+ * same seed always gives the same arrangement for the same grid size.
+ * <p>
+ * seed - The seed the scrambles are made from.
+ * <p>
+ * minMisplaced - The least amount of tiles that must be misplaced.
+ *
+ */
+
+public class Scrambler {
+
+    /**
+     * Requests that every tile is misplaced.
+     */
+    public static final int ALL_TILES = Integer.MAX_VALUE;
+
+    private long seed;
+    private int minMisplaced;
+
+    /**
+     * Standard constructor.
+     * @param seed The seed the scrambles are made from.
+     * @param minMisplaced The least amount of tiles that must be
+     *                     misplaced, ALL_TILES for a derangement.
+     */
+
+    public Scrambler(long seed, int minMisplaced){
+        this.seed = seed;
+        this.minMisplaced = minMisplaced;
+    }
+
+    /**
+     * Scrambles the grid. Only the model is changed, the images are
+     * expected to be placed afterwards in one batch. The grid is
+     * shuffled again until enough tiles are misplaced, which keeps
+     * the accepted arrangements uniformly distributed.
+     * @param gameGrid The grid to scramble.
+     */
+
+    public void scramble(GameGrid gameGrid){
+        Random random = new Random(seed);
+        int tiles = gameGrid.getRows() * gameGrid.getColumns();
+        int required = getRequiredMisplaced(tiles);
+
+        do{
+            for(int i = tiles - 1; i > 0; i--){
+                gameGrid.swapTiles(i, random.nextInt(i + 1));
+            }
+        }while(gameGrid.getMisplacedTiles() < required);
+    }
+
+    /**
+     * Scrambles the grid for the sliding mode, where only arrangements
+     * that can be solved with sliding moves are allowed. An arrangement
+     * that cannot be solved is fixed by swapping the images of sources
+     * 0 and 1, which pairs every unsolvable arrangement with exactly one
+     * solvable one and keeps the result uniform.
+     * @param gameGrid The grid to scramble.
+     */
+
+    public void scrambleSliding(GameGrid gameGrid){
+        Random random = new Random(seed);
+        int tiles = gameGrid.getRows() * gameGrid.getColumns();
+        int required = getRequiredMisplaced(tiles);
+
+        do{
+            for(int i = tiles - 1; i > 0; i--){
+                gameGrid.swapTiles(i, random.nextInt(i + 1));
+            }
+            if(tiles > 2 && !SlidingPuzzle.isSolvable(gameGrid)){
+                gameGrid.swapTiles(gameGrid.getTileOfImageSource(0),
+                        gameGrid.getTileOfImageSource(1));
+            }
+        }while(gameGrid.getMisplacedTiles() < required);
+    }
+
+    /**
+     * Calculates how many tiles must be misplaced in a grid. A grid
+     * with a single tile can never be misplaced.
+     * @param tiles The amount of tiles in the grid.
+     * @return minMisplaced, bounded by what the grid allows.
+     */
+
+    int getRequiredMisplaced(int tiles){
+        if(tiles < 2){
+            return 0;
+        }
+        return Math.max(0, Math.min(minMisplaced, tiles));
+    }
+
+    /**
+     * Getter.
+     * @return The seed.
+     */
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter.
+     * @return The least amount of tiles that must be misplaced.
+     */
+
+    public int getMinMisplaced() {
+        return minMisplaced;
+    }
+}
@@ -0,0 +1,102 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+/**
+ * <h1>SlidingPuzzle</h1>
+ * Rules of the sliding mode, played on a GameGrid. The image source
+ * of the last tile is the blank, and a tile may only be moved into the
+ * blank from a neighbouring tile.
+ *
+ */
+
+public final class SlidingPuzzle {
+
+    /**
+     * Not instantiable.
+     */
+
+    private SlidingPuzzle(){
+
+    }
+
+    /**
+     * Getter.
+     * @param gameGrid The grid being played.
+     * @return The image source that is the blank.
+     */
+
+    public static int getBlankSource(GameGrid gameGrid){
+        return gameGrid.getRows() * gameGrid.getColumns() - 1;
+    }
+
+    /**
+     * Getter.
+     * @param gameGrid The grid being played.
+     * @return The index of the tile showing the blank.
+     */
+
+    public static int getBlankTile(GameGrid gameGrid){
+        return gameGrid.getTileOfImageSource(getBlankSource(gameGrid));
+    }
+
+    /**
+     * Checks if two tiles are next to each other, diagonals excluded.
+     * @param columns The amount of columns in the grid.
+     * @param index1 The index of a tile.
+     * @param index2 The index of a tile.
+     * @return True if the tiles share an edge.
+     */
+
+    public static boolean areNeighbours(int columns, int index1, int index2){
+        int row1 = index1 / columns;
+        int row2 = index2 / columns;
+        int column1 = index1 % columns;
+        int column2 = index2 % columns;
+        return Math.abs(row1 - row2) + Math.abs(column1 - column2) == 1;
+    }
+
+    /**
+     * Checks if a tile may be moved into the blank.
+     * @param gameGrid The grid being played.
+     * @param index The index of the tile to move.
+     * @return True if the tile is next to the blank.
+     */
+
+    public static boolean isMoveValid(GameGrid gameGrid, int index){
+        return areNeighbours(gameGrid.getColumns(), index,
+                getBlankTile(gameGrid));
+    }
+
+    /**
+     * Checks if the grid can be solved with sliding moves. Every move
+     * is a transposition with the blank that moves the blank one step,
+     * so the parity of the permutation must match the parity of the
+     * blank's distance from its own tile.
+     * @param gameGrid The grid to check.
+     * @return True if the grid can be solved.
+     */
+
+    public static boolean isSolvable(GameGrid gameGrid){
+        int tiles = gameGrid.getRows() * gameGrid.getColumns();
+        int columns = gameGrid.getColumns();
+        boolean visited[] = new boolean[tiles];
+        int transpositions = 0;
+
+        for(int i = 0; i<tiles; i++){
+            int length = 0;
+            for(int tile = i; !visited[tile];
+                tile = gameGrid.getImageSource(tile)){
+                visited[tile] = true;
+                length++;
+            }
+            if(length > 0){
+                transpositions += length - 1;
+            }
+        }
+
+        int blank = getBlankTile(gameGrid);
+        int blankSource = getBlankSource(gameGrid);
+        int distance = Math.abs(blank / columns - blankSource / columns)
+                + Math.abs(blank % columns - blankSource % columns);
+        return transpositions % 2 == distance % 2;
+    }
+}
@@ -0,0 +1,548 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <h1>SlidingSolver</h1>
+ * Optimal solver for the sliding mode. Runs IDA* with the sum of
+ * disjoint pattern databases as heuristic. The non-blank image sources
+ * are split into groups as large as MAX_DATABASE_ENTRIES allows, which
+ * gives 6-6-3 for 4x4 and 5-5-5-5-4 for 5x5. On square
+ * grids the databases are also looked up on the grid mirrored in its
+ * main diagonal, and the larger sum is used.
+ * <p>
+ * rows - The amount of rows in the grid.
+ * <p>
+ * columns - The amount of columns in the grid.
+ * <p>
+ * databases - The pattern databases of the groups.
+ * <p>
+ * groupOf - The group of every image source, -1 for the blank.
+ * <p>
+ * neighbours - The neighbouring tiles of every tile.
+ * <p>
+ * transpose - The mirror tile of every tile, null if the grid is not
+ * square.
+ * <p>
+ * The remaining fields hold the search state of solve.
+ *
+ */
+
+public class SlidingSolver {
+
+    /**
+     * The largest grid the solver handles.
+     */
+    public static final int MAX_TILES = 25;
+
+    static final long MAX_DATABASE_ENTRIES = 1 << 23;
+    private static final int MAX_GROUP_SIZE = 6;
+    private static final int FOUND = -1;
+    private static final int EXHAUSTED = -2;
+    private static final int NOT_FOUND = Integer.MAX_VALUE;
+    private static final long CHECK_MASK = 0xFFF;
+
+    private int rows;
+    private int columns;
+    private PatternDatabase databases[];
+    private int groupOf[];
+    private int neighbours[][];
+
+    private int sourceAt[];
+    private int tileOfSource[];
+    private int transpose[];
+    private int groupValues[];
+    private int reflectedValues[];
+    private int sum;
+    private int reflectedSum;
+    private int scratch[];
+    private int path[];
+    private int solutionLength;
+    private long nodes;
+    private long maxNodes;
+    private long startTime;
+    private long maxNanos;
+
+    /**
+     * Standard constructor.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param databases Disjoint pattern databases covering every
+     *                  non-blank image source.
+     */
+
+    public SlidingSolver(int rows, int columns,
+                         PatternDatabase[] databases){
+        int tiles = rows * columns;
+        this.rows = rows;
+        this.columns = columns;
+        this.databases = databases;
+        this.groupOf = new int[tiles];
+        this.neighbours = new int[tiles][];
+        this.sourceAt = new int[tiles];
+        this.tileOfSource = new int[tiles];
+        this.groupValues = new int[databases.length];
+        this.reflectedValues = new int[databases.length];
+        if(rows == columns){
+            this.transpose = new int[tiles];
+            for(int tile = 0; tile<tiles; tile++){
+                transpose[tile] = (tile % columns) * columns + tile / columns;
+            }
+        }
+        this.scratch = new int[MAX_GROUP_SIZE];
+
+        Arrays.fill(groupOf, -1);
+        for(int g = 0; g<databases.length; g++){
+            for(int source : databases[g].getPattern()){
+                groupOf[source] = g;
+            }
+        }
+        for(int tile = 0; tile<tiles; tile++){
+            int count = 0;
+            int candidates[] = new int[4];
+            for(int other = 0; other<tiles; other++){
+                if(SlidingPuzzle.areNeighbours(columns, tile, other)){
+                    candidates[count++] = other;
+                }
+            }
+            neighbours[tile] = Arrays.copyOf(candidates, count);
+        }
+    }
+
+    /**
+     * Splits the non-blank image sources into groups for a grid. The
+     * grid is cut into strips two columns wide, each strip is cut into
+     * compact groups from the top, and what is left of the strips is
+     * grouped last. Compact groups see more of the interactions between
+     * tiles than whole rows do.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @return The groups, in order.
+     */
+
+    static int[][] partition(int rows, int columns){
+        int tiles = rows * columns;
+        int groupSize = 1;
+        while(groupSize < MAX_GROUP_SIZE && PatternDatabase.placements(
+                tiles, groupSize + 1) <= MAX_DATABASE_ENTRIES){
+            groupSize++;
+        }
+        ArrayList<int[]> groups = new ArrayList<>();
+        int leftovers[] = new int[tiles];
+        int leftoverCount = 0;
+        int strip[] = new int[2 * rows];
+
+        for(int first = 0; first<columns; first += 2){
+            int stripCount = 0;
+            for(int row = 0; row<rows; row++){
+                for(int column = first; column<Math.min(first + 2, columns);
+                    column++){
+                    int source = row * columns + column;
+                    if(source != tiles - 1){
+                        strip[stripCount++] = source;
+                    }
+                }
+            }
+            int whole = stripCount / groupSize * groupSize;
+            for(int start = 0; start<whole; start += groupSize){
+                groups.add(Arrays.copyOfRange(strip, start,
+                        start + groupSize));
+            }
+            for(int i = whole; i<stripCount; i++){
+                leftovers[leftoverCount++] = strip[i];
+            }
+        }
+        Arrays.sort(leftovers, 0, leftoverCount);
+        for(int start = 0; start<leftoverCount; start += groupSize){
+            groups.add(Arrays.copyOfRange(leftovers, start,
+                    Math.min(start + groupSize, leftoverCount)));
+        }
+        return groups.toArray(new int[groups.size()][]);
+    }
+
+    /**
+     * Builds a solver and its pattern databases.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @return The solver.
+     * @throws IllegalArgumentException if the grid is larger than
+     * MAX_TILES.
+     */
+
+    public static SlidingSolver build(int rows, int columns){
+        checkSize(rows, columns);
+        int groups[][] = partition(rows, columns);
+        PatternDatabase databases[] = new PatternDatabase[groups.length];
+        for(int g = 0; g<groups.length; g++){
+            databases[g] = PatternDatabase.build(rows, columns, groups[g]);
+        }
+        return new SlidingSolver(rows, columns, databases);
+    }
+
+    /**
+     * Loads a solver with databases cached in a directory, or builds
+     * it and caches the databases there. A broken cache file is
+     * rebuilt. Slow the first time for a grid size, never call it from
+     * the UI thread.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param cacheDir The directory to cache databases in.
+     * @return The solver.
+     */
+
+    public static SlidingSolver loadOrBuild(int rows, int columns,
+                                            File cacheDir){
+        checkSize(rows, columns);
+        File file = new File(cacheDir, "sliding-" + rows + "x" + columns
+                + ".pdb");
+
+        if(file.exists()){
+            try{
+                return read(rows, columns, file);
+            }catch (IOException e){
+                file.delete();
+            }
+        }
+
+        SlidingSolver solver = build(rows, columns);
+        File temp = new File(cacheDir, file.getName() + ".tmp");
+        try{
+            solver.write(temp);
+            if(!temp.renameTo(file)){
+                temp.delete();
+            }
+        }catch (IOException e){
+            temp.delete();
+        }
+        return solver;
+    }
+
+    /**
+     * Checks that the solver handles a grid size.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     */
+
+    private static void checkSize(int rows, int columns){
+        if(rows * columns > MAX_TILES || rows * columns < 2){
+            throw new IllegalArgumentException("Unsupported sliding grid "
+                    + rows + "x" + columns);
+        }
+    }
+
+    /**
+     * Reads cached databases.
+     * @param rows The amount of rows in the grid.
+     * @param columns The amount of columns in the grid.
+     * @param file The cache file.
+     * @return The solver.
+     * @throws IOException if the file cannot be read or does not match.
+     */
+
+    private static SlidingSolver read(int rows, int columns, File file)
+            throws IOException {
+        int groups[][] = partition(rows, columns);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))));
+        try{
+            if(in.readInt() != groups.length){
+                throw new IOException("Pattern groups do not match");
+            }
+            PatternDatabase databases[] =
+                    new PatternDatabase[groups.length];
+            for(int g = 0; g<groups.length; g++){
+                databases[g] = PatternDatabase.readFrom(in);
+                if(!Arrays.equals(groups[g],
+                        databases[g].getPattern())){
+                    throw new IOException("Pattern groups do not match");
+                }
+            }
+            return new SlidingSolver(rows, columns, databases);
+        }finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the databases, compressed.
+     * @param file The file to write to.
+     * @throws IOException if the file cannot be written.
+     */
+
+    private void write(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(file))));
+        try{
+            out.writeInt(databases.length);
+            for(PatternDatabase database : databases){
+                database.writeTo(out);
+            }
+        }finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Copies the state of a grid into the search state.
+     * @param gameGrid The grid to copy.
+     * @return The heuristic value of the grid.
+     */
+
+    private int load(GameGrid gameGrid){
+        sum = 0;
+        reflectedSum = 0;
+        for(int tile = 0; tile<sourceAt.length; tile++){
+            sourceAt[tile] = gameGrid.getImageSource(tile);
+            tileOfSource[sourceAt[tile]] = tile;
+        }
+        for(int g = 0; g<databases.length; g++){
+            groupValues[g] = databases[g].lookup(tileOfSource, scratch);
+            sum += groupValues[g];
+            if(transpose != null){
+                reflectedValues[g] = databases[g].lookupReflected(
+                        tileOfSource, transpose, scratch);
+                reflectedSum += reflectedValues[g];
+            }
+        }
+        return heuristic();
+    }
+
+    /**
+     * Getter.
+     * @return The heuristic value of the search state, the larger of
+     * the plain and the reflected sum.
+     */
+
+    private int heuristic(){
+        return Math.max(sum, reflectedSum);
+    }
+
+    /**
+     * Moves a tile into the blank in the search state and updates the
+     * groups of the moved image source.
+     * @param tile The tile to move.
+     * @param blank The tile of the blank.
+     */
+
+    private void moveTile(int tile, int blank){
+        int source = sourceAt[tile];
+        int group = groupOf[source];
+
+        sourceAt[blank] = source;
+        sourceAt[tile] = sourceAt.length - 1;
+        tileOfSource[source] = blank;
+        tileOfSource[sourceAt.length - 1] = tile;
+
+        sum -= groupValues[group];
+        groupValues[group] = databases[group].lookup(tileOfSource, scratch);
+        sum += groupValues[group];
+        if(transpose != null){
+            group = groupOf[transpose[source]];
+            reflectedSum -= reflectedValues[group];
+            reflectedValues[group] = databases[group].lookupReflected(
+                    tileOfSource, transpose, scratch);
+            reflectedSum += reflectedValues[group];
+        }
+    }
+
+    /**
+     * Calculates a lower bound of the moves left.
+     * @param gameGrid The grid to estimate.
+     * @return The heuristic value of the grid.
+     */
+
+    public int estimate(GameGrid gameGrid){
+        return load(gameGrid);
+    }
+
+    /**
+     * Finds an optimal solution with no time limit.
+     * @param gameGrid The grid to solve. It is not changed.
+     * @param maxNodes The most nodes to expand before giving up.
+     * @return The tiles to move into the blank, in order, or null if
+     * the grid cannot be solved, maxNodes was reached first or the
+     * thread was interrupted.
+     */
+
+    public int[] solve(GameGrid gameGrid, long maxNodes){
+        return solve(gameGrid, maxNodes, Long.MAX_VALUE);
+    }
+
+    /**
+     * Finds an optimal solution. The search gives up early if it runs
+     * out of time or the thread running it is interrupted, both are
+     * checked every few thousand nodes.
+     * @param gameGrid The grid to solve. It is not changed.
+     * @param maxNodes The most nodes to expand before giving up.
+     * @param maxNanos The most time to search before giving up, in
+     *                 nanoseconds.
+     * @return The tiles to move into the blank, in order, or null if
+     * the grid cannot be solved, maxNodes or maxNanos was reached first
+     * or the thread was interrupted.
+     */
+
+    public int[] solve(GameGrid gameGrid, long maxNodes, long maxNanos){
+        if(!SlidingPuzzle.isSolvable(gameGrid)){
+            return null;
+        }
+        int bound = load(gameGrid);
+        int blank = tileOfSource[sourceAt.length - 1];
+
+        this.nodes = 0;
+        this.maxNodes = maxNodes;
+        this.maxNanos = maxNanos;
+        this.startTime = System.nanoTime();
+        this.path = new int[Math.max(64, 4 * bound + 16)];
+
+        while(true){
+            int result = search(0, bound, blank, -1);
+            if(result == FOUND){
+                return Arrays.copyOf(path, solutionLength);
+            }else if(result == EXHAUSTED || result == NOT_FOUND){
+                return null;
+            }
+            bound = result;
+        }
+    }
+
+    /**
+     * The depth first search of IDA*.
+     * @param depth The moves made so far.
+     * @param bound The current cost bound.
+     * @param blank The tile of the blank.
+     * @param previous The tile the blank came from, never moved back to.
+     * @return FOUND, EXHAUSTED, or the smallest cost above bound.
+     */
+
+    private int search(int depth, int bound, int blank, int previous){
+        int h = heuristic();
+        int f = depth + h;
+        if(f > bound){
+            return f;
+        }
+        if(h == 0){
+            solutionLength = depth;
+            return FOUND;
+        }
+        if(++nodes > maxNodes || (nodes & CHECK_MASK) == 0
+                && (System.nanoTime() - startTime > maxNanos
+                || Thread.currentThread().isInterrupted())){
+            return EXHAUSTED;
+        }
+        if(depth == path.length){
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+
+        int min = NOT_FOUND;
+        for(int tile : neighbours[blank]){
+            if(tile == previous){
+                continue;
+            }
+            int source = sourceAt[tile];
+            int group = groupOf[source];
+            int value = groupValues[group];
+            int reflectedGroup = transpose == null ? 0
+                    : groupOf[transpose[source]];
+            int reflectedValue = reflectedValues[reflectedGroup];
+
+            moveTile(tile, blank);
+            path[depth] = tile;
+            int result = search(depth + 1, bound, tile, blank);
+
+            sourceAt[tile] = source;
+            sourceAt[blank] = sourceAt.length - 1;
+            tileOfSource[source] = tile;
+            tileOfSource[sourceAt.length - 1] = blank;
+            sum += value - groupValues[group];
+            groupValues[group] = value;
+            reflectedSum += reflectedValue - reflectedValues[reflectedGroup];
+            reflectedValues[reflectedGroup] = reflectedValue;
+
+            if(result == FOUND || result == EXHAUSTED){
+                return result;
+            }
+            if(result < min){
+                min = result;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Finds the move that looks best without searching, used when an
+     * optimal solution could not be found in time.
+     * @param gameGrid The grid being played.
+     * @return The tile to move into the blank, -1 if the grid is solved.
+     */
+
+    public int getGreedyMove(GameGrid gameGrid){
+        if(load(gameGrid) == 0){
+            return -1;
+        }
+        int blank = tileOfSource[sourceAt.length - 1];
+        int best = -1;
+        int bestValue = Integer.MAX_VALUE;
+
+        for(int tile : neighbours[blank]){
+            moveTile(tile, blank);
+            int value = heuristic();
+            moveTile(blank, tile);
+            if(value < bestValue){
+                bestValue = value;
+                best = tile;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Getter.
+     * @return The nodes expanded by the last solve.
+     */
+
+    public long getExpandedNodes() {
+        return nodes;
+    }
+
+    /**
+     * Getter.
+     * @return The total size of the pattern databases in bytes.
+     */
+
+    public long getDatabaseBytes() {
+        long bytes = 0;
+        for(PatternDatabase database : databases){
+            bytes += database.getByteCount();
+        }
+        return bytes;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of rows.
+     */
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of columns.
+     */
+
+    public int getColumns() {
+        return columns;
+    }
+}
@@ -0,0 +1,237 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import java.util.Arrays;
+
+/**
+ * <h1>SwapSolver</h1>
+ * Solves a GameGrid with two-tile swaps. The tiles form a permutation
+ * of image sources, and the least amount of swaps needed to solve it is
+ * the amount of tiles minus the amount of cycles in the permutation.
+ * The cycles are kept up to date after each swap, so the cost of a swap
+ * is bounded by the smaller of the cycles it merges or splits.
+ * <p>
+ * gameGrid - The grid being solved.
+ * <p>
+ * cycleOf - The cycle id of every tile.
+ * <p>
+ * cycleSize - The amount of tiles in every cycle id.
+ * <p>
+ * freeIds - A stack of unused cycle ids.
+ * <p>
+ * freeCount - The amount of ids on freeIds.
+ * <p>
+ * cycles - The amount of cycles, fixed tiles included.
+ * <p>
+ * hintFrom - Every tile below it shows its own image. Only swapped
+ * tiles can become misplaced, so it is lowered to them by onSwap and
+ * moved forward by getHintTile.
+ *
+ */
+
+public class SwapSolver {
+
+    private GameGrid gameGrid;
+    private int cycleOf[];
+    private int cycleSize[];
+    private int freeIds[];
+    private int freeCount;
+    private int cycles;
+    private int hintFrom;
+
+    /**
+     * Standard constructor.
+     * @param gameGrid The grid to solve.
+     */
+
+    public SwapSolver(GameGrid gameGrid){
+        int tiles = gameGrid.getRows() * gameGrid.getColumns();
+        this.gameGrid = gameGrid;
+        this.cycleOf = new int[tiles];
+        this.cycleSize = new int[tiles];
+        this.freeIds = new int[tiles];
+        recompute();
+    }
+
+    /**
+     * Decomposes the grid into cycles from scratch.
+     */
+
+    public void recompute(){
+        int tiles = cycleOf.length;
+        Arrays.fill(cycleOf, -1);
+        cycles = 0;
+
+        for(int i = 0; i<tiles; i++){
+            if(cycleOf[i] != -1){
+                continue;
+            }
+            int size = 0;
+            int tile = i;
+            do{
+                cycleOf[tile] = cycles;
+                size++;
+                tile = gameGrid.getImageSource(tile);
+            }while(tile != i);
+            cycleSize[cycles] = size;
+            cycles++;
+        }
+
+        freeCount = 0;
+        for(int id = tiles - 1; id >= cycles; id--){
+            freeIds[freeCount++] = id;
+        }
+        hintFrom = 0;
+    }
+
+    /**
+     * Updates the cycles after two tiles have been swapped in the grid.
+     * Swapping two tiles of the same cycle splits it in two, swapping
+     * tiles of different cycles merges them.
+     * @param index1 The index of a swapped tile.
+     * @param index2 The index of a swapped tile.
+     */
+
+    public void onSwap(int index1, int index2){
+        if(index1 == index2){
+            return;
+        }
+        if(gameGrid.getImageSource(index1) != index1){
+            hintFrom = Math.min(hintFrom, index1);
+        }
+        if(gameGrid.getImageSource(index2) != index2){
+            hintFrom = Math.min(hintFrom, index2);
+        }
+        int id1 = cycleOf[index1];
+        int id2 = cycleOf[index2];
+
+        if(id1 == id2){
+            int newId = freeIds[--freeCount];
+            int x = index1;
+            int y = index2;
+            int steps = 0;
+            while(true){
+                steps++;
+                x = gameGrid.getImageSource(x);
+                if(x == index1){
+                    relabel(index1, newId, steps);
+                    break;
+                }
+                y = gameGrid.getImageSource(y);
+                if(y == index2){
+                    relabel(index2, newId, steps);
+                    break;
+                }
+            }
+            cycleSize[id1] -= steps;
+            cycleSize[newId] = steps;
+            cycles++;
+        }else{
+            if(cycleSize[id1] <= cycleSize[id2]){
+                relabelMerged(index2, index1, id2);
+                cycleSize[id2] += cycleSize[id1];
+                freeIds[freeCount++] = id1;
+            }else{
+                relabelMerged(index1, index2, id1);
+                cycleSize[id1] += cycleSize[id2];
+                freeIds[freeCount++] = id2;
+            }
+            cycles--;
+        }
+    }
+
+    /**
+     * Gives a number of tiles, following the grid, a new cycle id.
+     * @param start The tile to start at.
+     * @param id The new cycle id.
+     * @param count The amount of tiles to relabel.
+     */
+
+    private void relabel(int start, int id, int count){
+        int tile = start;
+        for(int i = 0; i<count; i++){
+            cycleOf[tile] = id;
+            tile = gameGrid.getImageSource(tile);
+        }
+    }
+
+    /**
+     * Relabels the tiles of a merged cycle that used to belong to the
+     * cycle of end. After the swap, the old cycle of end continues from
+     * the image source of the other swapped tile and finishes at end.
+     * @param other The swapped tile that keeps its cycle id.
+     * @param end The swapped tile whose old cycle is relabeled.
+     * @param id The cycle id of other.
+     */
+
+    private void relabelMerged(int other, int end, int id){
+        int tile = gameGrid.getImageSource(other);
+        while(true){
+            cycleOf[tile] = id;
+            if(tile == end){
+                break;
+            }
+            tile = gameGrid.getImageSource(tile);
+        }
+    }
+
+    /**
+     * Getter.
+     * @return The least amount of swaps that solves the grid.
+     */
+
+    public int getMinimumSwaps(){
+        return cycleOf.length - cycles;
+    }
+
+    /**
+     * Finds a tile whose swap is part of an optimal solution. Swapping
+     * it with the tile that shows its image, see
+     * GameGrid.getTileOfImageSource, puts its image in place. The lowest
+     * misplaced tile is found by walking from hintFrom, so following
+     * hints until the grid is solved walks the grid once in total. A
+     * swap far below the hint tile makes the walk after it pass the
+     * tiles in between again, at most once per swap.
+     * @return The index of the lowest misplaced tile, -1 if the grid is
+     * solved.
+     */
+
+    public int getHintTile(){
+        while(hintFrom < cycleOf.length
+                && gameGrid.getImageSource(hintFrom) == hintFrom){
+            hintFrom++;
+        }
+        return hintFrom < cycleOf.length ? hintFrom : -1;
+    }
+
+    /**
+     * Produces an optimal sequence of swaps without changing the grid.
+     * @return Pairs of tile indexes to swap in order, two entries per
+     * swap.
+     */
+
+    public int[] solve(){
+        int tiles = cycleOf.length;
+        int sources[] = new int[tiles];
+        int sourceTiles[] = new int[tiles];
+        int moves[] = new int[2 * getMinimumSwaps()];
+        int move = 0;
+
+        for(int i = 0; i<tiles; i++){
+            sources[i] = gameGrid.getImageSource(i);
+            sourceTiles[i] = gameGrid.getTileOfImageSource(i);
+        }
+        for(int i = 0; i<tiles; i++){
+            if(sources[i] == i){
+                continue;
+            }
+            int other = sourceTiles[i];
+            moves[move++] = i;
+            moves[move++] = other;
+            sources[other] = sources[i];
+            sourceTiles[sources[i]] = other;
+            sources[i] = i;
+            sourceTiles[i] = i;
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,223 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+/**
+ * <h1>TileMotion</h1>
+ * The movement of the images of tiles that are animated to their
+ * places, like after a swap or a scramble. Every tile has an offset
+ * from its place that shrinks to nothing over the duration of its move,
+ * easing out. The state is kept in arrays made once per grid, so any
+ * amount of tiles can move at once without allocating anything per
+ * frame. Tiles are indexed like in GameGrid, row * columns + column.
+ * <p>
+ * startX, startY - The offset of every tile when its move starts.
+ * <p>
+ * offsetX, offsetY - The current offset of every tile.
+ * <p>
+ * startTime, duration - When the move of every tile starts and how long
+ * it lasts, in nanoseconds.
+ * <p>
+ * moving - The indices of the moving tiles, the first movingCount are
+ * used.
+ * <p>
+ * slot - The place of every tile in moving, -1 if it is not moving.
+ * <p>
+ * movingCount - The amount of moving tiles.
+ *
+ */
+
+public class TileMotion {
+
+    private float startX[] = new float[0];
+    private float startY[] = new float[0];
+    private float offsetX[] = new float[0];
+    private float offsetY[] = new float[0];
+    private long startTime[] = new long[0];
+    private long duration[] = new long[0];
+    private int moving[] = new int[0];
+    private int slot[] = new int[0];
+    private int movingCount = 0;
+
+    /**
+     * Makes the state of a grid, with no tile moving.
+     * @param tiles The amount of tiles in the grid.
+     */
+
+    public void reset(int tiles){
+        startX = new float[tiles];
+        startY = new float[tiles];
+        offsetX = new float[tiles];
+        offsetY = new float[tiles];
+        startTime = new long[tiles];
+        duration = new long[tiles];
+        moving = new int[tiles];
+        slot = new int[tiles];
+        for(int i = 0; i<tiles; i++){
+            slot[i] = -1;
+        }
+        movingCount = 0;
+    }
+
+    /**
+     * Starts moving a tile from an offset to its place. A tile that is
+     * already moving starts over from the new offset.
+     * @param index The index of the tile.
+     * @param fromX The x offset to start from, in pixels.
+     * @param fromY The y offset to start from, in pixels.
+     * @param startTime When the move starts, in nanoseconds. The tile
+     *                  stays at the offset until then.
+     * @param duration How long the move lasts, in nanoseconds.
+     */
+
+    public void start(int index, float fromX, float fromY, long startTime,
+                      long duration){
+        this.startX[index] = fromX;
+        this.startY[index] = fromY;
+        this.offsetX[index] = fromX;
+        this.offsetY[index] = fromY;
+        this.startTime[index] = startTime;
+        this.duration[index] = duration;
+        if(slot[index] == -1){
+            slot[index] = movingCount;
+            moving[movingCount] = index;
+            movingCount++;
+        }
+    }
+
+    /**
+     * Starts moving the images of two tiles that were just swapped, each
+     * from where it is drawn now. Images that were still moving carry on
+     * from where they were.
+     * @param index1 The index of a tile.
+     * @param index2 The index of the other tile.
+     * @param dx The x position of index2 minus that of index1, in pixels.
+     * @param dy The y position of index2 minus that of index1, in pixels.
+     * @param startTime When the moves start, in nanoseconds.
+     * @param duration How long the moves last, in nanoseconds.
+     */
+
+    public void swap(int index1, int index2, float dx, float dy,
+                     long startTime, long duration){
+        float x1 = dx + offsetX[index2];
+        float y1 = dy + offsetY[index2];
+        float x2 = offsetX[index1] - dx;
+        float y2 = offsetY[index1] - dy;
+        start(index1, x1, y1, startTime, duration);
+        start(index2, x2, y2, startTime, duration);
+    }
+
+    /**
+     * Moves every moving tile to where it is at a time. Tiles that have
+     * arrived stop moving.
+     * @param time The time, in nanoseconds.
+     * @return True if any tile is still moving.
+     */
+
+    public boolean step(long time){
+        int k = 0;
+        while(k < movingCount){
+            int index = moving[k];
+            long elapsed = time - startTime[index];
+            if(elapsed >= duration[index]){
+                offsetX[index] = 0;
+                offsetY[index] = 0;
+                remove(k);
+                continue;
+            }
+            float remaining = elapsed <= 0 ? 1
+                    : 1 - (float) elapsed / duration[index];
+            remaining = remaining * remaining * remaining;
+            offsetX[index] = startX[index] * remaining;
+            offsetY[index] = startY[index] * remaining;
+            k++;
+        }
+        return movingCount > 0;
+    }
+
+    /**
+     * Stops a tile at its place.
+     * @param index The index of the tile.
+     */
+
+    public void stop(int index){
+        offsetX[index] = 0;
+        offsetY[index] = 0;
+        if(slot[index] != -1){
+            remove(slot[index]);
+        }
+    }
+
+    /**
+     * Stops every tile at its place.
+     */
+
+    public void stopAll(){
+        while(movingCount > 0){
+            stop(moving[movingCount - 1]);
+        }
+    }
+
+    /**
+     * Removes a tile from the moving tiles, moving the last one into its
+     * slot.
+     * @param k The slot of the tile.
+     */
+
+    private void remove(int k){
+        slot[moving[k]] = -1;
+        movingCount--;
+        if(k < movingCount){
+            int last = moving[movingCount];
+            moving[k] = last;
+            slot[last] = k;
+        }
+    }
+
+    /**
+     * Getter.
+     * @param index The index of a tile.
+     * @return True if the tile is moving.
+     */
+
+    public boolean isMoving(int index){
+        return slot[index] != -1;
+    }
+
+    /**
+     * Getter.
+     * @return The amount of moving tiles.
+     */
+
+    public int getMovingCount() {
+        return movingCount;
+    }
+
+    /**
+     * Getter.
+     * @param k A number from 0 to getMovingCount() - 1.
+     * @return The index of a moving tile.
+     */
+
+    public int getMovingTile(int k){
+        return moving[k];
+    }
+
+    /**
+     * Getter.
+     * @param index The index of a tile.
+     * @return The x offset of the tile from its place, in pixels.
+     */
+
+    public float getOffsetX(int index){
+        return offsetX[index];
+    }
+
+    /**
+     * Getter.
+     * @param index The index of a tile.
+     * @return The y offset of the tile from its place, in pixels.
+     */
+
+    public float getOffsetY(int index){
+        return offsetY[index];
+    }
+}
@@ -0,0 +1,47 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameStatsTest {
+
+    @Test
+    public void testNearestRankPercentiles(){
+        FrameStats stats = new FrameStats(200);
+        for(int i = 100; i>=1; i--){
+            stats.record(i);
+        }
+
+        assertEquals(100, stats.getCount());
+        assertEquals(50, stats.getPercentile(50));
+        assertEquals(99, stats.getPercentile(99));
+        assertEquals(100, stats.getPercentile(100));
+        assertEquals(1, stats.getPercentile(0.1));
+    }
+
+    @Test
+    public void testThatOldFramesAreForgotten(){
+        FrameStats stats = new FrameStats(10);
+        for(int i = 0; i<10; i++){
+            stats.record(1000);
+        }
+        for(int i = 0; i<10; i++){
+            stats.record(5);
+        }
+
+        assertEquals(10, stats.getCount());
+        assertEquals(5, stats.getPercentile(100));
+    }
+
+    @Test
+    public void testEmptyAndReset(){
+        FrameStats stats = new FrameStats(4);
+        assertEquals(0, stats.getPercentile(99));
+
+        stats.record(7);
+        stats.reset();
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getPercentile(50));
+    }
+}
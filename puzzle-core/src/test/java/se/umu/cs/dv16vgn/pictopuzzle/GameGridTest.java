@@ -62,4 +62,35 @@ public class GameGridTest {
     }
 
 
-}
\ No newline at end of file
+    @Test
+    public void testMisplacedTilesAfterSwaps(){
+        gg.swapTileImageSourcePositions(new Position(0, 0), new Position(0, 4));
+        gg.swapTileImageSourcePositions(new Position(0, 0), new Position(4, 4));
+
+        assertEquals(3, gg.getMisplacedTiles());
+    }
+
+    @Test
+    public void testThatSwapWithItselfKeepsGridCorrect(){
+        gg.swapTileImageSourcePositions(new Position(2, 2), new Position(2, 2));
+
+        assertEquals(0, gg.getMisplacedTiles());
+        assertEquals(true, gg.isPuzzleSolved());
+    }
+
+    @Test
+    public void testThatRestoredGridMatchesSavedGrid(){
+        gg.swapTileImageSourcePositions(new Position(0, 0), new Position(3, 1));
+        GameGrid restored = new GameGrid(50, 50, 5, 5, gg.getImageSources());
+
+        assertEquals(2, restored.getMisplacedTiles());
+        assertEquals(16, restored.getImageSource(0));
+        assertEquals(0, restored.getTileOfImageSource(16));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatRestoringNonPermutationFails(){
+        new GameGrid(50, 50, 1, 3, new int[]{0, 1, 1});
+    }
+
+}
@@ -0,0 +1,39 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GridSizeTest {
+
+    @Test
+    public void testParsingSingleDigitSize(){
+        assertEquals(new GridSize(5, 4), GridSize.parse("5x4"));
+    }
+
+    @Test
+    public void testParsingMultiDigitSize(){
+        GridSize size = GridSize.parse(" 50 X 20 ");
+
+        assertEquals(50, size.getRows());
+        assertEquals(20, size.getColumns());
+        assertEquals(1000, size.getTileCount());
+    }
+
+    @Test
+    public void testThatAllPresetsParse(){
+        for(String definition : GridSize.PRESETS){
+            assertEquals(definition, GridSize.parse(definition).toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatMissingColumnsIsRejected(){
+        GridSize.parse("20x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatTooLargeSizeIsRejected(){
+        GridSize.parse((GridSize.MAX_SIDE + 1) + "x2");
+    }
+}
@@ -0,0 +1,49 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PermutationCodecTest {
+
+    private int[] reversed(int length){
+        int[] permutation = new int[length];
+        for(int i = 0; i < length; i++){
+            permutation[i] = length - 1 - i;
+        }
+        return permutation;
+    }
+
+    private void assertRoundTrip(int length, int expectedWidth){
+        int[] permutation = reversed(length);
+        byte[] packed = PermutationCodec.encode(permutation);
+        int[] decoded = new int[length];
+
+        assertEquals(1 + length * expectedWidth, packed.length);
+        PermutationCodec.decode(packed, decoded);
+        assertArrayEquals(permutation, decoded);
+    }
+
+    @Test
+    public void testSmallGridUsesOneBytePerTile(){
+        assertRoundTrip(6, 1);
+        assertRoundTrip(256, 1);
+    }
+
+    @Test
+    public void testLargeGridUsesTwoBytesPerTile(){
+        assertRoundTrip(257, 2);
+        assertRoundTrip(100 * 100, 2);
+    }
+
+    @Test
+    public void testHugeGridUsesFourBytesPerTile(){
+        assertRoundTrip(300 * 300, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatWrongLengthIsRejected(){
+        PermutationCodec.decode(PermutationCodec.encode(reversed(6)),
+                new int[9]);
+    }
+}
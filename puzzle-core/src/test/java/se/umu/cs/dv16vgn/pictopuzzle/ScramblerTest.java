@@ -0,0 +1,77 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScramblerTest {
+
+    private int[] imageSources(GameGrid gg){
+        int[] sources = new int[gg.getRows() * gg.getColumns()];
+        for(int i = 0; i < sources.length; i++){
+            sources[i] = gg.getImageSource(i);
+        }
+        return sources;
+    }
+
+    @Test
+    public void testThatSameSeedGivesSamePuzzle(){
+        GameGrid first = new GameGrid(10, 10, 20, 20);
+        GameGrid second = new GameGrid(10, 10, 20, 20);
+
+        new Scrambler(42, 0).scramble(first);
+        new Scrambler(42, 0).scramble(second);
+
+        assertArrayEquals(imageSources(first), imageSources(second));
+    }
+
+    @Test
+    public void testThatAllTilesAreMisplaced(){
+        for(long seed = 0; seed < 200; seed++){
+            GameGrid gg = new GameGrid(10, 10, 3, 2);
+            new Scrambler(seed, Scrambler.ALL_TILES).scramble(gg);
+
+            assertEquals(6, gg.getMisplacedTiles());
+        }
+    }
+
+    @Test
+    public void testThatMinimumMisplacedIsKept(){
+        for(long seed = 0; seed < 200; seed++){
+            GameGrid gg = new GameGrid(10, 10, 4, 4);
+            new Scrambler(seed, 12).scramble(gg);
+
+            assertTrue(gg.getMisplacedTiles() >= 12);
+        }
+    }
+
+    @Test
+    public void testThatSingleTileGridIsLeftAlone(){
+        GameGrid gg = new GameGrid(10, 10, 1, 1);
+        new Scrambler(1, Scrambler.ALL_TILES).scramble(gg);
+
+        assertEquals(true, gg.isPuzzleSolved());
+    }
+
+    @Test
+    public void testThatScramblesAreUniform(){
+        int[] counts = new int[6];
+        int scrambles = 60000;
+
+        for(long seed = 0; seed < scrambles; seed++){
+            GameGrid gg = new GameGrid(10, 10, 1, 3);
+            new Scrambler(seed, 0).scramble(gg);
+            int a = gg.getImageSource(0);
+            int b = gg.getImageSource(1);
+            counts[a * 2 + (b > a ? b - 1 : b)]++;
+        }
+
+        double expected = scrambles / 6.0;
+        double chiSquare = 0;
+        for(int count : counts){
+            chiSquare += (count - expected) * (count - expected) / expected;
+        }
+        // 5 degrees of freedom, p = 0.001.
+        assertTrue(chiSquare < 20.5);
+    }
+}
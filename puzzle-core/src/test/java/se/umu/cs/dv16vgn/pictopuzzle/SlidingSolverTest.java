@@ -0,0 +1,216 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SlidingSolverTest {
+
+    /**
+     * Instances 2, 6 and 9 of Korf (1985), the quickest of the first
+     * ten, with their optimal solution lengths. Korf's goal has the
+     * blank in the first cell, so the instances are rotated half a turn
+     * to fit the grid, where the blank ends in the last tile.
+     */
+    private static final int[][] KORF_INSTANCES = {
+            {13, 5, 4, 10, 9, 12, 8, 14, 2, 3, 7, 1, 0, 15, 11, 6},
+            {14, 7, 1, 9, 12, 3, 6, 15, 8, 11, 2, 5, 10, 0, 4, 13},
+            {3, 14, 9, 11, 5, 4, 8, 2, 13, 12, 6, 7, 10, 1, 15, 0}};
+    private static final int[] KORF_OPTIMAL = {55, 52, 46};
+
+    private GameGrid fromKorf(int[] instance){
+        GameGrid gg = new GameGrid(10, 10, 4, 4);
+        for(int cell = 0; cell < 16; cell++){
+            int tile = 15 - cell;
+            gg.swapTiles(tile, gg.getTileOfImageSource(15 - instance[cell]));
+        }
+        return gg;
+    }
+
+    private long encode(GameGrid gg){
+        long key = 0;
+        for(int i = 0; i < gg.getRows() * gg.getColumns(); i++){
+            key = key * 16 + gg.getImageSource(i);
+        }
+        return key;
+    }
+
+    private HashMap<Long, Integer> distancesFromSolved(int rows, int columns){
+        HashMap<Long, Integer> distances = new HashMap<>();
+        ArrayDeque<GameGrid> queue = new ArrayDeque<>();
+        GameGrid start = new GameGrid(10, 10, rows, columns);
+        distances.put(encode(start), 0);
+        queue.add(start);
+        while(!queue.isEmpty()){
+            GameGrid gg = queue.poll();
+            int distance = distances.get(encode(gg));
+            int blank = SlidingPuzzle.getBlankTile(gg);
+            for(int tile = 0; tile < rows * columns; tile++){
+                if(SlidingPuzzle.areNeighbours(columns, blank, tile)){
+                    GameGrid next = new GameGrid(gg);
+                    next.swapTiles(blank, tile);
+                    if(!distances.containsKey(encode(next))){
+                        distances.put(encode(next), distance + 1);
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+
+    private void apply(GameGrid gg, int[] solution){
+        for(int tile : solution){
+            assertTrue(SlidingPuzzle.isMoveValid(gg, tile));
+            gg.swapTiles(SlidingPuzzle.getBlankTile(gg), tile);
+        }
+    }
+
+    @Test
+    public void testThatSwappingTwoImagesMakesGridUnsolvable(){
+        GameGrid gg = new GameGrid(10, 10, 4, 4);
+        assertTrue(SlidingPuzzle.isSolvable(gg));
+        gg.swapTiles(0, 1);
+        assertFalse(SlidingPuzzle.isSolvable(gg));
+
+        GameGrid small = new GameGrid(10, 10, 2, 2);
+        small.swapTiles(0, 1);
+        assertNull(SlidingSolver.build(2, 2).solve(small, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testThatOnlyNeighboursOfBlankCanMove(){
+        GameGrid gg = new GameGrid(10, 10, 3, 4);
+        assertEquals(11, SlidingPuzzle.getBlankTile(gg));
+        assertTrue(SlidingPuzzle.isMoveValid(gg, 10));
+        assertTrue(SlidingPuzzle.isMoveValid(gg, 7));
+        assertFalse(SlidingPuzzle.isMoveValid(gg, 6));
+        assertFalse(SlidingPuzzle.isMoveValid(gg, 11));
+        assertFalse(SlidingPuzzle.areNeighbours(4, 3, 4));
+    }
+
+    @Test
+    public void testThatSlidingScrambleIsSolvable(){
+        for(long seed = 0; seed < 200; seed++){
+            GameGrid gg = new GameGrid(10, 10, 4, 3);
+            new Scrambler(seed, Scrambler.ALL_TILES).scrambleSliding(gg);
+            assertTrue(SlidingPuzzle.isSolvable(gg));
+            assertEquals(12, gg.getMisplacedTiles());
+        }
+    }
+
+    @Test
+    public void testThatSolutionsAreOptimalOn3x3(){
+        HashMap<Long, Integer> distances = distancesFromSolved(3, 3);
+        assertEquals(181440, distances.size());
+        SlidingSolver solver = SlidingSolver.build(3, 3);
+
+        for(long seed = 0; seed < 50; seed++){
+            GameGrid gg = new GameGrid(10, 10, 3, 3);
+            new Scrambler(seed, 0).scrambleSliding(gg);
+            int[] solution = solver.solve(gg, Long.MAX_VALUE);
+
+            assertEquals((int) distances.get(encode(gg)), solution.length);
+            assertTrue(solver.estimate(gg) <= solution.length);
+            apply(gg, solution);
+            assertTrue(gg.isPuzzleSolved());
+        }
+    }
+
+    @Test
+    public void testThatGreedyMoveIsValid(){
+        SlidingSolver solver = SlidingSolver.build(3, 4);
+        Random random = new Random(5);
+        GameGrid gg = new GameGrid(10, 10, 3, 4);
+        assertEquals(-1, solver.getGreedyMove(gg));
+
+        for(int i = 0; i < 100; i++){
+            new Scrambler(random.nextLong(), 0).scrambleSliding(gg);
+            assertTrue(SlidingPuzzle.isMoveValid(gg,
+                    solver.getGreedyMove(gg)));
+        }
+    }
+
+    @Test
+    public void testThatDatabasesAreCached() throws Exception {
+        File dir = File.createTempFile("sliding", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        GameGrid gg = new GameGrid(10, 10, 3, 3);
+        new Scrambler(11, 0).scrambleSliding(gg);
+
+        SlidingSolver built = SlidingSolver.loadOrBuild(3, 3, dir);
+        File file = new File(dir, "sliding-3x3.pdb");
+        assertTrue(file.exists());
+        SlidingSolver read = SlidingSolver.loadOrBuild(3, 3, dir);
+        assertEquals(built.estimate(gg), read.estimate(gg));
+        assertEquals(built.solve(gg, Long.MAX_VALUE).length,
+                read.solve(gg, Long.MAX_VALUE).length);
+
+        file.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void testThatPartitionCoversEverySourceOnce(){
+        for(int rows = 2; rows <= 5; rows++){
+            for(int columns = 2; columns * rows <= SlidingSolver.MAX_TILES;
+                columns++){
+                boolean[] seen = new boolean[rows * columns];
+                for(int[] group : SlidingSolver.partition(rows, columns)){
+                    for(int source : group){
+                        assertFalse(seen[source]);
+                        seen[source] = true;
+                    }
+                }
+                for(int source = 0; source < rows * columns - 1; source++){
+                    assertTrue(seen[source]);
+                }
+                assertFalse(seen[rows * columns - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testThatKorfInstancesAreSolvedOptimally(){
+        SlidingSolver solver = SlidingSolver.build(4, 4);
+
+        for(int i = 0; i < KORF_INSTANCES.length; i++){
+            GameGrid gg = fromKorf(KORF_INSTANCES[i]);
+            int[] solution = solver.solve(gg, Long.MAX_VALUE);
+
+            assertEquals(KORF_OPTIMAL[i], solution.length);
+            apply(gg, solution);
+            assertTrue(gg.isPuzzleSolved());
+        }
+    }
+
+    @Test
+    public void testThatInterruptedSearchGivesUp(){
+        SlidingSolver solver = SlidingSolver.build(4, 4);
+        GameGrid gg = fromKorf(KORF_INSTANCES[0]);
+
+        Thread.currentThread().interrupt();
+        try{
+            assertNull(solver.solve(gg, Long.MAX_VALUE));
+            assertTrue(solver.getExpandedNodes() < 10000);
+        }finally{
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testThatSearchGivesUpWhenOutOfTime(){
+        SlidingSolver solver = SlidingSolver.build(4, 4);
+        GameGrid gg = fromKorf(KORF_INSTANCES[0]);
+
+        assertNull(solver.solve(gg, Long.MAX_VALUE, 0));
+        assertTrue(solver.getExpandedNodes() <= 4096);
+        assertEquals(KORF_OPTIMAL[0],
+                solver.solve(gg, Long.MAX_VALUE, Long.MAX_VALUE).length);
+    }
+}
@@ -0,0 +1,149 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SwapSolverTest {
+
+    private int countCycles(GameGrid gg){
+        int tiles = gg.getRows() * gg.getColumns();
+        boolean[] visited = new boolean[tiles];
+        int cycles = 0;
+        for(int i = 0; i < tiles; i++){
+            if(!visited[i]){
+                cycles++;
+                for(int t = i; !visited[t]; t = gg.getImageSource(t)){
+                    visited[t] = true;
+                }
+            }
+        }
+        return cycles;
+    }
+
+    @Test
+    public void testThatSolvedGridNeedsNoSwaps(){
+        GameGrid gg = new GameGrid(10, 10, 5, 5);
+        SwapSolver solver = new SwapSolver(gg);
+
+        assertEquals(0, solver.getMinimumSwaps());
+        assertEquals(-1, solver.getHintTile());
+        assertEquals(0, solver.solve().length);
+    }
+
+    @Test
+    public void testThatThreeCycleNeedsTwoSwaps(){
+        GameGrid gg = new GameGrid(10, 10, 5, 5);
+        gg.swapTiles(0, 1);
+        gg.swapTiles(1, 2);
+
+        assertEquals(2, new SwapSolver(gg).getMinimumSwaps());
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchFullDecomposition(){
+        GameGrid gg = new GameGrid(10, 10, 20, 20);
+        new Scrambler(7, 0).scramble(gg);
+        SwapSolver solver = new SwapSolver(gg);
+        Random random = new Random(3);
+
+        for(int i = 0; i < 5000; i++){
+            int a = random.nextInt(400);
+            int b = random.nextInt(400);
+            gg.swapTiles(a, b);
+            solver.onSwap(a, b);
+
+            assertEquals(400 - countCycles(gg), solver.getMinimumSwaps());
+        }
+    }
+
+    @Test
+    public void testThatSolutionIsOptimalAndSolves(){
+        GameGrid gg = new GameGrid(10, 10, 30, 30);
+        new Scrambler(11, 0).scramble(gg);
+        SwapSolver solver = new SwapSolver(gg);
+        int par = solver.getMinimumSwaps();
+        int[] moves = solver.solve();
+
+        assertEquals(2 * par, moves.length);
+        for(int i = 0; i < moves.length; i += 2){
+            gg.swapTiles(moves[i], moves[i + 1]);
+            solver.onSwap(moves[i], moves[i + 1]);
+            assertEquals(par - i / 2 - 1, solver.getMinimumSwaps());
+        }
+        assertEquals(true, gg.isPuzzleSolved());
+    }
+
+    @Test
+    public void testThatHintReducesMinimumSwaps(){
+        GameGrid gg = new GameGrid(10, 10, 10, 10);
+        new Scrambler(5, Scrambler.ALL_TILES).scramble(gg);
+        SwapSolver solver = new SwapSolver(gg);
+
+        while(!gg.isPuzzleSolved()){
+            int before = solver.getMinimumSwaps();
+            int tile = solver.getHintTile();
+            int other = gg.getTileOfImageSource(tile);
+            gg.swapTiles(tile, other);
+            solver.onSwap(tile, other);
+
+            assertEquals(before - 1, solver.getMinimumSwaps());
+        }
+        assertEquals(-1, solver.getHintTile());
+    }
+
+    @Test
+    public void testThatHintIsLowestMisplacedTileAfterSwaps(){
+        GameGrid gg = new GameGrid(10, 10, 10, 10);
+        new Scrambler(7, Scrambler.ALL_TILES).scramble(gg);
+        SwapSolver solver = new SwapSolver(gg);
+        Random random = new Random(11);
+
+        for(int i = 0; i < 2000; i++){
+            int tile = solver.getHintTile();
+            int other = gg.getTileOfImageSource(tile);
+            if(random.nextInt(3) == 0){
+                tile = random.nextInt(100);
+                other = random.nextInt(100);
+            }
+            gg.swapTiles(tile, other);
+            solver.onSwap(tile, other);
+
+            int lowest = -1;
+            for(int j = 0; j < 100 && lowest == -1; j++){
+                if(gg.getImageSource(j) != j){
+                    lowest = j;
+                }
+            }
+            assertEquals(lowest, solver.getHintTile());
+            if(lowest == -1){
+                new Scrambler(i, Scrambler.ALL_TILES).scramble(gg);
+                solver.recompute();
+            }
+        }
+    }
+
+    @Test
+    public void testThatUpdatesAreFastOnLargeGrids(){
+        GameGrid gg = new GameGrid(10, 10, 100, 100);
+        new Scrambler(13, 0).scramble(gg);
+        SwapSolver solver = new SwapSolver(gg);
+        Random random = new Random(17);
+        int swaps = 100000;
+
+        long start = System.nanoTime();
+        for(int i = 0; i < swaps; i++){
+            int a = random.nextInt(10000);
+            int b = random.nextInt(10000);
+            gg.swapTiles(a, b);
+            solver.onSwap(a, b);
+        }
+        long perSwap = (System.nanoTime() - start) / swaps;
+
+        // One frame is 16 ms, a tap must cost a tiny part of it.
+        assertTrue("Swap update took " + perSwap + " ns",
+                perSwap < 1000000);
+    }
+}
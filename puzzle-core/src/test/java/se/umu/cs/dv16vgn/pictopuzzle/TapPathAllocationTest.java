@@ -0,0 +1,111 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures the heap allocations of the model side of a tap. Game gets
+ * the row and column of a tap from PuzzleView, and TileListener and
+ * swapTiles then select, unselect or swap with GameGrid, update the
+ * SwapSolver and animate the swap with the TileMotion of the view. The
+ * same calls are made here, in the same order, with the same offsets
+ * PuzzleView gives the motion.
+ */
+public class TapPathAllocationTest {
+
+    private static final int TAPS = 100000;
+    private static final int SIDE = 50;
+    private static final int TILE_WIDTH = 21;
+    private static final int TILE_HEIGHT = 34;
+    private static final long SWAP_DURATION = 150000000L;
+
+    private com.sun.management.ThreadMXBean threadBean;
+    private GameGrid gg;
+    private SwapSolver solver;
+    private TileMotion motion;
+    private long now = 0;
+    private int moves = 0;
+
+    @Before
+    public void setUp() {
+        threadBean = (com.sun.management.ThreadMXBean)
+                ManagementFactory.getThreadMXBean();
+        gg = new GameGrid(TILE_WIDTH, TILE_HEIGHT, SIDE, SIDE);
+        new Scrambler(3, Scrambler.ALL_TILES).scramble(gg);
+        solver = new SwapSolver(gg);
+        motion = new TileMotion();
+        motion.reset(SIDE * SIDE);
+    }
+
+    /**
+     * The model side of Game.TileListener.onTileClick.
+     */
+    private void tap(int row, int column){
+        Position p = gg.getPosition(gg.indexOf(row, column));
+
+        if(gg.getMarkedTile() == null){
+            gg.setMarkedTile(p);
+        }else if(gg.getMarkedTile().equals(p)){
+            gg.setMarkedTile(null);
+        }else{
+            swapTiles(gg.getMarkedTile(), p);
+        }
+    }
+
+    /**
+     * The model side of Game.swapTiles and PuzzleView.animateSwap.
+     */
+    private void swapTiles(Position p1, Position p2){
+        int index1 = gg.indexOf(p1.getY(), p1.getX());
+        int index2 = gg.indexOf(p2.getY(), p2.getX());
+
+        motion.swap(index1, index2,
+                (index2 % SIDE - index1 % SIDE) * TILE_WIDTH,
+                (index2 / SIDE - index1 / SIDE) * TILE_HEIGHT,
+                now, SWAP_DURATION);
+        gg.swapTiles(index1, index2);
+        solver.onSwap(index1, index2);
+        gg.setMarkedTile(null);
+        moves++;
+        if(gg.isPuzzleSolved()){
+            moves = 0;
+        }
+    }
+
+    private void tapMany(int taps){
+        for(int i = 0; i < taps; i++){
+            tap(i * 31 % SIDE, (i / SIDE * 7 + i) % SIDE);
+            now += 16000000L;
+            motion.step(now);
+        }
+    }
+
+    private long allocatedBytes(){
+        return threadBean.getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+    }
+
+    @Test
+    public void testThatTapPathAllocatesNothing(){
+        assertTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        tapMany(TAPS);
+
+        long before = allocatedBytes();
+        long overhead = allocatedBytes() - before;
+
+        before = allocatedBytes();
+        tapMany(TAPS);
+        long allocated = allocatedBytes() - before - overhead;
+
+        assertEquals(0, allocated);
+        assertTrue(moves > 0);
+        assertEquals(solver.getMinimumSwaps(),
+                new SwapSolver(gg).getMinimumSwaps());
+    }
+}
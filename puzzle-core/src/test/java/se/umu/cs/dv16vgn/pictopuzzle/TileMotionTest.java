@@ -0,0 +1,122 @@
+package se.umu.cs.dv16vgn.pictopuzzle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class TileMotionTest {
+
+    private static final long DURATION = 1000;
+
+    private TileMotion motion;
+
+    @Before
+    public void setUp() {
+        motion = new TileMotion();
+        motion.reset(9);
+    }
+
+    @Test
+    public void testThatMoveEasesOutToItsPlace(){
+        motion.start(4, 100, -40, 0, DURATION);
+
+        assertTrue(motion.step(0));
+        assertEquals(100, motion.getOffsetX(4), 0.001);
+        assertEquals(-40, motion.getOffsetY(4), 0.001);
+
+        assertTrue(motion.step(DURATION / 2));
+        assertEquals(12.5, motion.getOffsetX(4), 0.001);
+        assertEquals(-5, motion.getOffsetY(4), 0.001);
+
+        assertFalse(motion.step(DURATION));
+        assertEquals(0, motion.getOffsetX(4), 0.001);
+        assertFalse(motion.isMoving(4));
+        assertEquals(0, motion.getMovingCount());
+    }
+
+    @Test
+    public void testThatDelayedMoveWaitsAtItsOffset(){
+        motion.start(0, 30, 0, 500, DURATION);
+
+        assertTrue(motion.step(200));
+        assertEquals(30, motion.getOffsetX(0), 0.001);
+        assertTrue(motion.step(500 + DURATION - 1));
+        assertFalse(motion.step(500 + DURATION));
+    }
+
+    @Test
+    public void testThatSwapStartsEachImageFromTheOtherTile(){
+        motion.swap(0, 2, 200, 0, 0, DURATION);
+        motion.step(0);
+
+        assertEquals(200, motion.getOffsetX(0), 0.001);
+        assertEquals(-200, motion.getOffsetX(2), 0.001);
+        assertEquals(2, motion.getMovingCount());
+    }
+
+    @Test
+    public void testThatSwapInFlightCarriesOnFromWhereImagesAre(){
+        motion.swap(0, 1, 100, 0, 0, DURATION);
+        motion.step(DURATION / 2);
+        float drawnAt0 = motion.getOffsetX(0);
+
+        motion.swap(0, 3, 0, 50, DURATION / 2, DURATION);
+        motion.step(DURATION / 2);
+
+        assertEquals(drawnAt0, motion.getOffsetX(3), 0.001);
+        assertEquals(-50, motion.getOffsetY(3), 0.001);
+        assertEquals(0, motion.getOffsetX(0), 0.001);
+        assertEquals(50, motion.getOffsetY(0), 0.001);
+        assertEquals(3, motion.getMovingCount());
+    }
+
+    @Test
+    public void testThatStopLeavesOtherTilesMoving(){
+        for(int i = 0; i<9; i++){
+            motion.start(i, i, i, 0, DURATION);
+        }
+        motion.stop(0);
+        motion.stop(4);
+
+        assertEquals(7, motion.getMovingCount());
+        assertFalse(motion.isMoving(0));
+        assertEquals(0, motion.getOffsetX(4), 0.001);
+        for(int k = 0; k<motion.getMovingCount(); k++){
+            assertTrue(motion.isMoving(motion.getMovingTile(k)));
+        }
+
+        motion.stopAll();
+        assertEquals(0, motion.getMovingCount());
+        assertFalse(motion.step(0));
+    }
+
+    @Test
+    public void testThatFramesOfLargeGridAllocateNothing(){
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean)
+                        ManagementFactory.getThreadMXBean();
+        assertTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+        int tiles = 50 * 50;
+        motion.reset(tiles);
+
+        long before = threadBean.getThreadAllocatedBytes(id);
+        long overhead = threadBean.getThreadAllocatedBytes(id) - before;
+
+        before = threadBean.getThreadAllocatedBytes(id);
+        for(int i = 0; i<tiles; i++){
+            motion.start(i, i % 50, i / 50, i, DURATION);
+        }
+        motion.swap(0, tiles - 1, 49, 49, 0, DURATION);
+        for(long time = 0; motion.step(time); time += 16){
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(id) - before
+                - overhead;
+
+        assertEquals(0, allocated);
+    }
+}